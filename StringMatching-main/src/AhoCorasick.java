@@ -0,0 +1,192 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aho-Corasick: a trie of the patterns with failure links, one state step per text char
+ *
+ * Kept compact rather than as a full transition table: the edges of all
+ * states sit in two flat arrays (char labels, int targets) sorted per state
+ * and found by binary search; only the root has a direct table. A miss
+ * follows failure links until some state has an edge for the char. Output
+ * links chain the states whose pattern is a suffix of the current one, so
+ * every match costs O(1) to find.
+ *
+ * The cost per char does not depend on pattern length or count, but a large
+ * dictionary spreads the walk over many states scattered across memory, and
+ * that is where Wu-Manber's skipping can win. Matches are reported by end
+ * position, not start (longest first at the same end). Immutable after
+ * construction and safe to share between threads.
+ */
+public final class AhoCorasick implements MultiPatternMatcher {
+
+    private static final int ROOT = 0;
+
+    private final List<String> patterns;
+    private final int[] rootNext;     // char -> state, ROOT if no edge
+    private final int[] edgeStart;    // edges of state s are [edgeStart[s], edgeStart[s + 1])
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+    private final int[] fail;
+    private final int[] outputStart;  // patterns ending at state s are outputs[outputStart[s], outputStart[s + 1])
+    private final int[] outputs;
+    private final int[] outputLink;   // nearest state on the failure chain with outputs, -1 = none
+
+    /**
+     * @throws IllegalArgumentException if patterns is empty or contains an empty pattern
+     */
+    public AhoCorasick(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns");
+        }
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).isEmpty()) {
+                throw new IllegalArgumentException("Pattern " + i + " is empty");
+            }
+        }
+
+        // Trie from the patterns in sorted order: children are created in label order,
+        // and the child to follow for a shared prefix is always the newest one
+        Integer[] order = new Integer[patterns.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> patterns.get(a).compareTo(patterns.get(b)));
+        int[] parent = new int[64];
+        char[] label = new char[64];
+        int[] lastChild = new int[64];
+        int[] endState = new int[patterns.size()];
+        int states = 1;
+        for (int index : order) {
+            String pattern = patterns.get(index);
+            int state = ROOT;
+            for (int k = 0; k < pattern.length(); k++) {
+                char c = pattern.charAt(k);
+                int child = lastChild[state];
+                if (child == ROOT || label[child] != c) {
+                    if (states == parent.length) {
+                        parent = Arrays.copyOf(parent, states * 2);
+                        label = Arrays.copyOf(label, states * 2);
+                        lastChild = Arrays.copyOf(lastChild, states * 2);
+                    }
+                    child = states++;
+                    parent[child] = state;
+                    label[child] = c;
+                    lastChild[state] = child;
+                }
+                state = child;
+            }
+            endState[index] = state;
+        }
+
+        // Edges grouped by parent; state ids ascend per parent, and so do labels
+        this.edgeStart = new int[states + 1];
+        for (int s = 1; s < states; s++) {
+            edgeStart[parent[s] + 1]++;
+        }
+        for (int s = 0; s < states; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+        this.edgeLabel = new char[states - 1];
+        this.edgeTarget = new int[states - 1];
+        int[] fill = Arrays.copyOf(edgeStart, states);
+        for (int s = 1; s < states; s++) {
+            int e = fill[parent[s]]++;
+            edgeLabel[e] = label[s];
+            edgeTarget[e] = s;
+        }
+        this.rootNext = new int[Character.MAX_VALUE + 1];
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT + 1]; e++) {
+            rootNext[edgeLabel[e]] = edgeTarget[e];
+        }
+
+        this.outputStart = new int[states + 1];
+        for (int index = 0; index < endState.length; index++) {
+            outputStart[endState[index] + 1]++;
+        }
+        for (int s = 0; s < states; s++) {
+            outputStart[s + 1] += outputStart[s];
+        }
+        this.outputs = new int[patterns.size()];
+        fill = Arrays.copyOf(outputStart, states);
+        for (int index = 0; index < endState.length; index++) {
+            outputs[fill[endState[index]]++] = index;
+        }
+
+        // Failure and output links, breadth first so a state's failure target is done first
+        this.fail = new int[states];
+        this.outputLink = new int[states];
+        outputLink[ROOT] = -1;
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTarget[e];
+                int f = state == ROOT ? ROOT : next(fail[state], edgeLabel[e]);
+                fail[child] = f;
+                outputLink[child] = outputStart[f] < outputStart[f + 1] ? f : outputLink[f];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * The state after reading c in state, following failure links on a miss
+     */
+    private int next(int state, char c) {
+        while (state != ROOT) {
+            int lo = edgeStart[state];
+            int hi = edgeStart[state + 1] - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char midLabel = edgeLabel[mid];
+                if (midLabel < c) {
+                    lo = mid + 1;
+                } else if (midLabel > c) {
+                    hi = mid - 1;
+                } else {
+                    return edgeTarget[mid];
+                }
+            }
+            state = fail[state];
+        }
+        return rootNext[c];
+    }
+
+    @Override
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    /**
+     * Matches are reported in ascending order of their end position, longest pattern first
+     */
+    @Override
+    public void search(CharSequence text, int from, int to, MultiMatchSink sink) {
+        Solution.checkRange(text, from, to);
+        int state = ROOT;
+        int span = SearchBudget.blockSpan(1);
+        for (int block = from; block >= from && block < to; block += span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block + Math.min(to - 1 - block, span);
+            for (int i = block; i <= blockEnd; i++) {
+                state = next(state, text.charAt(i));
+                int s = outputStart[state] < outputStart[state + 1] ? state : outputLink[state];
+                while (s >= 0) {
+                    for (int o = outputStart[s]; o < outputStart[s + 1]; o++) {
+                        int index = outputs[o];
+                        if (!sink.accept(index, i - patterns.get(index).length() + 1)) {
+                            return;
+                        }
+                    }
+                    s = outputLink[s];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.ServiceConfigurationError;
+
+/**
+ * All available algorithms, looked up by name
+ *
+ * Built once, when the class is first used: BuiltinAlgorithms first, then
+ * every other SolutionProvider found by ServiceLoader, in classpath order.
+ * After that the registry never changes, so it is read without locks from any
+ * thread, and the order of the algorithms is the same in every run.
+ *
+ * Algorithms are shared stateless instances (see SolutionProvider), callers
+ * use them directly instead of creating their own.
+ */
+public final class AlgorithmRegistry {
+
+    private static final Map<String, Solution> BY_NAME;
+    private static final List<Solution> ALL;
+
+    static {
+        Map<String, Solution> byName = new LinkedHashMap<>();
+        // Registered directly as well, so the built-ins do not depend on the
+        // META-INF resources being on the classpath
+        register(byName, new BuiltinAlgorithms());
+        try {
+            for (SolutionProvider provider : ServiceLoader.load(SolutionProvider.class)) {
+                if (!(provider instanceof BuiltinAlgorithms)) {
+                    register(byName, provider);
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Error loading algorithm providers: " + e.getMessage());
+        }
+        BY_NAME = Collections.unmodifiableMap(byName);
+        ALL = Collections.unmodifiableList(new ArrayList<>(byName.values()));
+    }
+
+    private AlgorithmRegistry() {
+    }
+
+    private static void register(Map<String, Solution> byName, SolutionProvider provider) {
+        for (Solution solution : provider.solutions()) {
+            Solution existing = byName.putIfAbsent(solution.getName(), solution);
+            if (existing != null) {
+                System.err.println("Duplicate algorithm " + solution.getName() + " from "
+                        + provider.getClass().getName() + " ignored");
+            }
+        }
+    }
+
+    /**
+     * Every registered algorithm, built-ins first
+     */
+    public static List<Solution> all() {
+        return ALL;
+    }
+
+    /**
+     * The algorithm with this name (as returned by getName())
+     * @throws IllegalArgumentException if there is none
+     */
+    public static Solution get(String name) {
+        Solution solution = BY_NAME.get(name);
+        if (solution == null) {
+            throw new IllegalArgumentException("Algorithm not found: " + name);
+        }
+        return solution;
+    }
+
+    /**
+     * The algorithm with this name, or null
+     */
+    public static Solution find(String name) {
+        return BY_NAME.get(name);
+    }
+}
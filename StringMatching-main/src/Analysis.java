@@ -1,84 +1,171 @@
 import java.util.*;
 
 class Naive extends Solution {
-    static {
-        SUBCLASSES.add(Naive.class);
-        System.out.println("Naive registered");
-    }
-
     public Naive() {
     }
 
     @Override
     public String Solve(String text, String pattern) {
-        List<Integer> indices = new ArrayList<>();
-        int n = text.length();
+        return findMatches(text, pattern).toString();
+    }
+
+    @Override
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
         int m = pattern.length();
 
-        for (int i = 0; i <= n - m; i++) {
-            int j;
-            for (j = 0; j < m; j++) {
-                if (text.charAt(i + j) != pattern.charAt(j)) {
-                    break;
+        // Blocks of span + 1 windows, the time budget is checked between blocks
+        // (block >= from ends the loop if block overflows past Integer.MAX_VALUE)
+        int span = SearchBudget.blockSpan(m);
+        for (int block = from; block >= from && block <= to - m; block += span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block + Math.min(to - m - block, span);
+            for (int i = block; i <= blockEnd; i++) {
+                int j;
+                for (j = 0; j < m; j++) {
+                    if (text.charAt(i + j) != pattern.charAt(j)) {
+                        break;
+                    }
+                }
+                if (j == m && !sink.accept(i)) {
+                    return;
                 }
-            }
-            if (j == m) {
-                indices.add(i);
             }
         }
+    }
 
-        return indicesToString(indices);
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+
+        int span = SearchBudget.blockSpan(m);
+        for (int block = to - m; block >= from; block -= span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block - Math.min(block - from, span);
+            for (int i = block; i >= blockEnd; i--) {
+                int j;
+                for (j = 0; j < m; j++) {
+                    if (text.charAt(i + j) != pattern.charAt(j)) {
+                        break;
+                    }
+                }
+                if (j == m && !sink.accept(i)) {
+                    return;
+                }
+            }
+        }
     }
 }
 
 class KMP extends Solution {
-    static {
-        SUBCLASSES.add(KMP.class);
-        System.out.println("KMP registered");
-    }
-
     public KMP() {
     }
 
     @Override
     public String Solve(String text, String pattern) {
-        List<Integer> indices = new ArrayList<>();
-        int n = text.length();
+        return findMatches(text, pattern).toString();
+    }
+
+    @Override
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
         int m = pattern.length();
 
         // Handle empty pattern - matches at every position
         if (m == 0) {
-            for (int i = 0; i <= n; i++) {
-                indices.add(i);
-            }
-            return indicesToString(indices);
+            reportAllPositions(from, to, sink);
+            return;
         }
 
         // Compute LPS (Longest Proper Prefix which is also Suffix) array
         int[] lps = computeLPS(pattern);
 
-        int i = 0; // index for text
+        int i = from; // index for text
         int j = 0; // index for pattern
 
-        while (i < n) {
-            if (text.charAt(i) == pattern.charAt(j)) {
-                i++;
-                j++;
-            }
+        int span = SearchBudget.blockSpan(m);
+        while (i < to) {
+            SearchBudget.checkpoint();
+            int blockEnd = i + Math.min(to - 1 - i, span);
+            while (i <= blockEnd) {
+                if (text.charAt(i) == pattern.charAt(j)) {
+                    i++;
+                    j++;
+                }
 
-            if (j == m) {
-                indices.add(i - j);
-                j = lps[j - 1];
-            } else if (i < n && text.charAt(i) != pattern.charAt(j)) {
-                if (j != 0) {
+                if (j == m) {
+                    if (!sink.accept(i - j)) {
+                        return;
+                    }
                     j = lps[j - 1];
-                } else {
-                    i++;
+                } else if (i <= blockEnd && text.charAt(i) != pattern.charAt(j)) {
+                    if (j != 0) {
+                        j = lps[j - 1];
+                    } else {
+                        i++;
+                    }
                 }
             }
         }
+    }
+
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+
+        if (m == 0) {
+            reportAllPositionsReverse(from, to, sink);
+            return;
+        }
+
+        // Mirrored: LPS of the reversed pattern, the text is read from right to left
+        String reversed = new StringBuilder(pattern).reverse().toString();
+        int[] lps = computeLPS(reversed);
+
+        int i = to - 1; // index for text
+        int j = 0; // index for reversed pattern
+
+        int span = SearchBudget.blockSpan(m);
+        while (i >= from) {
+            SearchBudget.checkpoint();
+            int blockEnd = i - Math.min(i - from, span);
+            while (i >= blockEnd) {
+                if (text.charAt(i) == reversed.charAt(j)) {
+                    i--;
+                    j++;
+                }
 
-        return indicesToString(indices);
+                if (j == m) {
+                    // text[i + 1 .. i + m] matched
+                    if (!sink.accept(i + 1)) {
+                        return;
+                    }
+                    j = lps[j - 1];
+                } else if (i >= blockEnd && text.charAt(i) != reversed.charAt(j)) {
+                    if (j != 0) {
+                        j = lps[j - 1];
+                    } else {
+                        i--;
+                    }
+                }
+            }
+        }
     }
 
     private int[] computeLPS(String pattern) {
@@ -109,11 +196,6 @@ class KMP extends Solution {
 }
 
 class RabinKarp extends Solution {
-    static {
-        SUBCLASSES.add(RabinKarp.class);
-        System.out.println("RabinKarp registered.");
-    }
-
     public RabinKarp() {
     }
 
@@ -121,20 +203,29 @@ class RabinKarp extends Solution {
 
     @Override
     public String Solve(String text, String pattern) {
-        List<Integer> indices = new ArrayList<>();
-        int n = text.length();
+        return findMatches(text, pattern).toString();
+    }
+
+    @Override
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
         int m = pattern.length();
 
         // Handle empty pattern - matches at every position
         if (m == 0) {
-            for (int i = 0; i <= n; i++) {
-                indices.add(i);
-            }
-            return indicesToString(indices);
+            reportAllPositions(from, to, sink);
+            return;
         }
 
-        if (m > n) {
-            return "";
+        if (m > to - from) {
+            return;
         }
 
         int d = 256; // Number of characters in the input alphabet
@@ -150,38 +241,101 @@ class RabinKarp extends Solution {
         // Calculate hash value for pattern and first window of text
         for (int i = 0; i < m; i++) {
             patternHash = (d * patternHash + pattern.charAt(i)) % PRIME;
-            textHash = (d * textHash + text.charAt(i)) % PRIME;
+            textHash = (d * textHash + text.charAt(from + i)) % PRIME;
         }
 
         // Slide the pattern over text one by one
-        for (int i = 0; i <= n - m; i++) {
-            // Check if hash values match
-            if (patternHash == textHash) {
-                // Check characters one by one
-                boolean match = true;
-                for (int j = 0; j < m; j++) {
-                    if (text.charAt(i + j) != pattern.charAt(j)) {
-                        match = false;
-                        break;
+        int span = SearchBudget.blockSpan(m);
+        for (int block = from; block >= from && block <= to - m; block += span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block + Math.min(to - m - block, span);
+            for (int i = block; i <= blockEnd; i++) {
+                // Check if hash values match
+                if (patternHash == textHash) {
+                    // Check characters one by one
+                    boolean match = true;
+                    for (int j = 0; j < m; j++) {
+                        if (text.charAt(i + j) != pattern.charAt(j)) {
+                            match = false;
+                            break;
+                        }
+                    }
+                    if (match && !sink.accept(i)) {
+                        return;
                     }
                 }
-                if (match) {
-                    indices.add(i);
+
+                // Calculate hash value for next window
+                if (i < to - m) {
+                    textHash = (d * (textHash - text.charAt(i) * h) + text.charAt(i + m)) % PRIME;
+
+                    // Convert negative hash to positive
+                    if (textHash < 0) {
+                        textHash = textHash + PRIME;
+                    }
                 }
             }
+        }
+    }
+
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+
+        if (m == 0) {
+            reportAllPositionsReverse(from, to, sink);
+            return;
+        }
+
+        if (m > to - from) {
+            return;
+        }
+
+        int d = 256;
+        long patternHash = 0;
+        long textHash = 0;
+        long h = 1;
+
+        for (int i = 0; i < m - 1; i++) {
+            h = (h * d) % PRIME;
+        }
+
+        // Mirrored hash: chars are weighted from the right end, so the window
+        // can roll to the left by dropping its last char and adding the one before it
+        for (int i = 0; i < m; i++) {
+            patternHash = (d * patternHash + pattern.charAt(m - 1 - i)) % PRIME;
+            textHash = (d * textHash + text.charAt(to - 1 - i)) % PRIME;
+        }
+
+        int span = SearchBudget.blockSpan(m);
+        for (int block = to - m; block >= from; block -= span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block - Math.min(block - from, span);
+            for (int i = block; i >= blockEnd; i--) {
+                if (patternHash == textHash) {
+                    boolean match = true;
+                    for (int j = 0; j < m; j++) {
+                        if (text.charAt(i + j) != pattern.charAt(j)) {
+                            match = false;
+                            break;
+                        }
+                    }
+                    if (match && !sink.accept(i)) {
+                        return;
+                    }
+                }
 
-            // Calculate hash value for next window
-            if (i < n - m) {
-                textHash = (d * (textHash - text.charAt(i) * h) + text.charAt(i + m)) % PRIME;
+                // Calculate hash value for the window one position to the left
+                if (i > from) {
+                    textHash = (d * (textHash - text.charAt(i + m - 1) * h) + text.charAt(i - 1)) % PRIME;
 
-                // Convert negative hash to positive
-                if (textHash < 0) {
-                    textHash = textHash + PRIME;
+                    if (textHash < 0) {
+                        textHash = textHash + PRIME;
+                    }
                 }
             }
         }
-
-        return indicesToString(indices);
     }
 }
 
@@ -190,53 +344,110 @@ class RabinKarp extends Solution {
  * Uses bad character rule and good suffix rule for efficient pattern matching
  */
 class BoyerMoore extends Solution {
-    static {
-        SUBCLASSES.add(BoyerMoore.class);
-        System.out.println("BoyerMoore registered (Cache-Optimized)");
+    @Override
+    public String Solve(String text, String pattern) {
+        return findMatches(text, pattern).toString();
     }
 
     @Override
-    public String Solve(String text, String pattern) {
-        int n = text.length();
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
         int m = pattern.length();
         
         if (m == 0) {
-            List<Integer> indices = new ArrayList<>(n + 1);
-            for (int i = 0; i <= n; i++) indices.add(i);
-            return indicesToString(indices);
+            reportAllPositions(from, to, sink);
+            return;
         }
-        if (m > n) return "";
-        
-        List<Integer> indices = new ArrayList<>();
+        if (m > to - from) return;
         
         int[] badChar = preprocessBadChar(pattern);
         int[] goodSuffix = preprocessGoodSuffix(pattern);
         
-        int s = 0;
-        while (s <= n - m) {
-            int j = m - 1;
-            
-            // Match from right to left
-            while (j >= 0 && pattern.charAt(j) == text.charAt(s + j)) {
-                j--;
-            }
-            
-            if (j < 0) {
-                // Full match
-                indices.add(s);
-                s += goodSuffix[0];
-            } else {
-                // Mismatch - compute shifts
-                char mismatchChar = text.charAt(s + j);
-                int badCharPos = badChar[mismatchChar & 0xFF];
-                int badCharShift = (badCharPos < 0) ? j + 1 : Math.max(1, j - badCharPos);
-                int goodSuffixShift = goodSuffix[j + 1];
+        int s = from;
+        int span = SearchBudget.blockSpan(m);
+        while (s <= to - m) {
+            SearchBudget.checkpoint();
+            int blockEnd = s + Math.min(to - m - s, span);
+            while (s <= blockEnd) {
+                int j = m - 1;
+                
+                // Match from right to left
+                while (j >= 0 && pattern.charAt(j) == text.charAt(s + j)) {
+                    j--;
+                }
                 
-                s += Math.max(badCharShift, goodSuffixShift);
+                if (j < 0) {
+                    // Full match
+                    if (!sink.accept(s)) {
+                        return;
+                    }
+                    s += goodSuffix[0];
+                } else {
+                    // Mismatch - compute shifts
+                    char mismatchChar = text.charAt(s + j);
+                    int badCharPos = badChar[mismatchChar & 0xFF];
+                    int badCharShift = (badCharPos < 0) ? j + 1 : Math.max(1, j - badCharPos);
+                    int goodSuffixShift = goodSuffix[j + 1];
+                    
+                    s += Math.max(badCharShift, goodSuffixShift);
+                }
             }
         }
+    }
+
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+        
+        if (m == 0) {
+            reportAllPositionsReverse(from, to, sink);
+            return;
+        }
+        if (m > to - from) return;
+        
+        // Mirrored tables: the same search over the reversed pattern and a
+        // reversed view of the text (reversed index k is text index to - 1 - k)
+        String reversed = new StringBuilder(pattern).reverse().toString();
+        int[] badChar = preprocessBadChar(reversed);
+        int[] goodSuffix = preprocessGoodSuffix(reversed);
         
-        return indicesToString(indices);
+        int length = to - from;
+        int s = 0;
+        int span = SearchBudget.blockSpan(m);
+        while (s <= length - m) {
+            SearchBudget.checkpoint();
+            int blockEnd = s + Math.min(length - m - s, span);
+            while (s <= blockEnd) {
+                int j = m - 1;
+                
+                while (j >= 0 && reversed.charAt(j) == text.charAt(to - 1 - s - j)) {
+                    j--;
+                }
+                
+                if (j < 0) {
+                    // Full match, it covers text[to - s - m, to - s)
+                    if (!sink.accept(to - s - m)) {
+                        return;
+                    }
+                    s += goodSuffix[0];
+                } else {
+                    char mismatchChar = text.charAt(to - 1 - s - j);
+                    int badCharPos = badChar[mismatchChar & 0xFF];
+                    int badCharShift = (badCharPos < 0) ? j + 1 : Math.max(1, j - badCharPos);
+                    int goodSuffixShift = goodSuffix[j + 1];
+                    
+                    s += Math.max(badCharShift, goodSuffixShift);
+                }
+            }
+        }
     }
 
     private int[] preprocessBadChar(String pattern) {
@@ -292,75 +503,282 @@ class BoyerMoore extends Solution {
 }
 
 class GoCrazy extends Solution {
-    static {
-        SUBCLASSES.add(GoCrazy.class);
-        System.out.println("GoCrazy registered (Adaptive Horspool++)");
+    @Override
+    public String Solve(String text, String pattern) {
+        return findMatches(text, pattern).toString();
     }
 
     @Override
-    public String Solve(String text, String pattern) {
-        int n = text.length();
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
         int m = pattern.length();
         
         if (m == 0) {
-            List<Integer> indices = new ArrayList<>(n + 1);
-            for (int i = 0; i <= n; i++) indices.add(i);
-            return indicesToString(indices);
+            reportAllPositions(from, to, sink);
+            return;
         }
-        if (m > n) return "";
-        
-        List<Integer> indices = new ArrayList<>();
+        if (m > to - from) return;
         
         // Adaptive strategy based on pattern length
         if (m == 1) {
             // Special case: single character (ultra-fast)
             char c = pattern.charAt(0);
-            for (int i = 0; i < n; i++) {
-                if (text.charAt(i) == c) indices.add(i);
+            int span = SearchBudget.blockSpan(m);
+            for (int block = from; block >= from && block <= to - 1; block += span + 1) {
+                SearchBudget.checkpoint();
+                int blockEnd = block + Math.min(to - 1 - block, span);
+                for (int i = block; i <= blockEnd; i++) {
+                    if (text.charAt(i) == c && !sink.accept(i)) return;
+                }
             }
-            return indicesToString(indices);
+            return;
         }
         
         // Build skip table (Horspool)
-        int[] skip = new int[256];
-        Arrays.fill(skip, m);
-        
-        for (int i = 0; i < m - 1; i++) {
-            skip[pattern.charAt(i) & 0xFF] = m - 1 - i;
-        }
+        int[] skip = buildSkipTable(pattern);
         
         // Cache last character for quick rejection
         char lastPatternChar = pattern.charAt(m - 1);
         
         // Main search loop
-        int i = 0;
-        while (i <= n - m) {
-            // Quick last-character check
-            char lastTextChar = text.charAt(i + m - 1);
-            
-            if (lastTextChar != lastPatternChar) {
-                // Fast skip - no match possible
-                i += skip[lastTextChar & 0xFF];
-                continue;
+        int i = from;
+        int span = SearchBudget.blockSpan(m);
+        while (i <= to - m) {
+            SearchBudget.checkpoint();
+            int blockEnd = i + Math.min(to - m - i, span);
+            while (i <= blockEnd) {
+                // Quick last-character check
+                char lastTextChar = text.charAt(i + m - 1);
+                
+                if (lastTextChar != lastPatternChar) {
+                    // Fast skip - no match possible
+                    i += skip[lastTextChar & 0xFF];
+                    continue;
+                }
+                
+                // Last character matches - check rest from right to left
+                int j = m - 2;
+                while (j >= 0 && text.charAt(i + j) == pattern.charAt(j)) {
+                    j--;
+                }
+                
+                if (j < 0) {
+                    // Full match found
+                    if (!sink.accept(i)) {
+                        return;
+                    }
+                    // Skip intelligently: use pattern's self-overlap
+                    i += (m > 1) ? skip[pattern.charAt(m - 2) & 0xFF] : 1;
+                } else {
+                    // Mismatch - use Horspool skip
+                    i += skip[lastTextChar & 0xFF];
+                }
             }
-            
-            // Last character matches - check rest from right to left
-            int j = m - 2;
-            while (j >= 0 && text.charAt(i + j) == pattern.charAt(j)) {
-                j--;
+        }
+    }
+
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+        
+        if (m == 0) {
+            reportAllPositionsReverse(from, to, sink);
+            return;
+        }
+        if (m > to - from) return;
+        
+        if (m == 1) {
+            char c = pattern.charAt(0);
+            int span = SearchBudget.blockSpan(m);
+            for (int block = to - 1; block >= from; block -= span + 1) {
+                SearchBudget.checkpoint();
+                int blockEnd = block - Math.min(block - from, span);
+                for (int i = block; i >= blockEnd; i--) {
+                    if (text.charAt(i) == c && !sink.accept(i)) return;
+                }
             }
-            
-            if (j < 0) {
-                // Full match found
-                indices.add(i);
-                // Skip intelligently: use pattern's self-overlap
-                i += (m > 1) ? skip[pattern.charAt(m - 2) & 0xFF] : 1;
-            } else {
-                // Mismatch - use Horspool skip
-                i += skip[lastTextChar & 0xFF];
+            return;
+        }
+        
+        // Mirrored skip table: built from the reversed pattern, keyed by the
+        // window's first char text[i], the window moves to the left
+        String reversed = new StringBuilder(pattern).reverse().toString();
+        int[] skip = buildSkipTable(reversed);
+        
+        char firstPatternChar = pattern.charAt(0);
+        
+        // i is the start of the window text[i, i + m)
+        int i = to - m;
+        int span = SearchBudget.blockSpan(m);
+        while (i >= from) {
+            SearchBudget.checkpoint();
+            int blockEnd = i - Math.min(i - from, span);
+            while (i >= blockEnd) {
+                char firstTextChar = text.charAt(i);
+                
+                if (firstTextChar != firstPatternChar) {
+                    i -= skip[firstTextChar & 0xFF];
+                    continue;
+                }
+                
+                // First character matches - check rest from left to right
+                int j = 1;
+                while (j < m && text.charAt(i + j) == pattern.charAt(j)) {
+                    j++;
+                }
+                
+                if (j == m) {
+                    if (!sink.accept(i)) {
+                        return;
+                    }
+                    i -= skip[reversed.charAt(m - 2) & 0xFF];
+                } else {
+                    i -= skip[firstTextChar & 0xFF];
+                }
             }
         }
+    }
+
+    private int[] buildSkipTable(String pattern) {
+        int m = pattern.length();
+        int[] skip = new int[256];
+        Arrays.fill(skip, m);
         
-        return indicesToString(indices);
+        for (int i = 0; i < m - 1; i++) {
+            skip[pattern.charAt(i) & 0xFF] = m - 1 - i;
+        }
+        return skip;
+    }
+}
+
+/**
+ * Introspective search: Horspool (as in GoCrazy) with a guaranteed linear worst case
+ *
+ * Like introsort, it runs the algorithm that is fast on typical inputs and
+ * watches its cost: the char comparisons spent verifying windows whose last
+ * char matched, against the positions advanced so far. Horspool needs few of
+ * them on ordinary text, but up to m per position on periodic inputs
+ * ("AAAA...", "ABAB..."). When they exceed MAX_RATIO per position (plus one
+ * pattern length of slack), the rest of the text, from the current window on,
+ * is handed to KMP. Every match left of the current window has been reported
+ * and the Horspool shifts never skip one, so nothing is lost or reported twice.
+ *
+ * Work before the switch is at most (1 + MAX_RATIO) per position plus
+ * O(m), KMP's is linear, so the whole search is O(n + m).
+ */
+class Introspective extends Solution {
+    static final int MAX_RATIO = 4;
+
+    private static final Solution FALLBACK = new KMP();
+
+    @Override
+    public String Solve(String text, String pattern) {
+        return findMatches(text, pattern).toString();
+    }
+
+    @Override
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        MatchSet matches = new MatchSet();
+        search(text, pattern, matches);
+        return matches;
+    }
+
+    @Override
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int m = pattern.length();
+
+        if (m == 0) {
+            reportAllPositions(from, to, sink);
+            return;
+        }
+        if (m > to - from) return;
+
+        if (m == 1) {
+            // One comparison per position, linear already
+            char c = pattern.charAt(0);
+            int span = SearchBudget.blockSpan(m);
+            for (int block = from; block >= from && block <= to - 1; block += span + 1) {
+                SearchBudget.checkpoint();
+                int blockEnd = block + Math.min(to - 1 - block, span);
+                for (int i = block; i <= blockEnd; i++) {
+                    if (text.charAt(i) == c && !sink.accept(i)) return;
+                }
+            }
+            return;
+        }
+
+        int[] skip = new int[256];
+        Arrays.fill(skip, m);
+        for (int k = 0; k < m - 1; k++) {
+            skip[pattern.charAt(k) & 0xFF] = m - 1 - k;
+        }
+        char lastPatternChar = pattern.charAt(m - 1);
+
+        // Verification comparisons so far, the last-char checks are at most one per position
+        long verifyCost = 0;
+        int i = from;
+        int span = SearchBudget.blockSpan(m);
+        while (i <= to - m) {
+            SearchBudget.checkpoint();
+            int blockEnd = i + Math.min(to - m - i, span);
+            while (i <= blockEnd) {
+                char lastTextChar = text.charAt(i + m - 1);
+                if (lastTextChar != lastPatternChar) {
+                    i += skip[lastTextChar & 0xFF];
+                    continue;
+                }
+
+                int j = m - 2;
+                while (j >= 0 && text.charAt(i + j) == pattern.charAt(j)) {
+                    j--;
+                }
+                verifyCost += m - 1 - j;
+
+                if (j < 0 && !sink.accept(i)) {
+                    return;
+                }
+                i += skip[lastTextChar & 0xFF];
+
+                if (verifyCost > (long) MAX_RATIO * (i - from + m)) {
+                    // Degenerate input: finish from the next window with a linear algorithm
+                    if (i <= to - m) {
+                        FALLBACK.search(text, pattern, i, to, sink);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reverse scans go to KMP's mirrored search, linear in every case
+     */
+    @Override
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        FALLBACK.searchReverse(text, pattern, from, to, sink);
     }
-}
\ No newline at end of file
+}
+
+
+/**
+ * The algorithms of this file, for code outside it (they are auxiliary classes)
+ */
+final class Analysis {
+
+    private Analysis() {
+    }
+
+    static List<Solution> builtins() {
+        return Arrays.asList(new Naive(), new KMP(), new RabinKarp(), new BoyerMoore(), new GoCrazy(),
+                new Introspective());
+    }
+}
@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes benchmark results in machine-readable form
+ *
+ * The console tables of ManualTestRunner and PreAnalysisComparison are for
+ * people; this class writes the same result model for dashboards:
+ *   results.json      - everything: per-run times, allocations, selector decisions
+ *   results.csv       - one row per (test case, algorithm)
+ *   preanalysis.csv   - one row per test case: chosen vs fastest, time saved/lost
+ *   report.html       - optional self-contained chart report (inline SVG, no scripts)
+ *
+ * All times are in nanoseconds.
+ */
+public class BenchmarkExporter {
+
+    static final String DEFAULT_DIR = "benchmark-results";
+    static final int SCHEMA_VERSION = 1;
+
+    /**
+     * Write JSON and CSV files (and the HTML report if requested) into directory
+     */
+    public static List<Path> exportAll(Path directory,
+                                       List<ManualTestRunner.TestExecutionResult> results,
+                                       List<PreAnalysisComparison.ComparisonResult> preAnalysisResults,
+                                       boolean html) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> written = new ArrayList<>();
+        written.add(writeJson(directory.resolve("results.json"), results, preAnalysisResults));
+        written.add(writeResultsCsv(directory.resolve("results.csv"), results));
+        written.add(writePreAnalysisCsv(directory.resolve("preanalysis.csv"), preAnalysisResults));
+        if (html) {
+            written.add(writeHtml(directory.resolve("report.html"), results, preAnalysisResults));
+        }
+        return written;
+    }
+
+    /**
+     * Full result model as one JSON document
+     */
+    static Path writeJson(Path file,
+                          List<ManualTestRunner.TestExecutionResult> results,
+                          List<PreAnalysisComparison.ComparisonResult> preAnalysisResults) throws IOException {
+        Map<String, PreAnalysisComparison.ComparisonResult> byTest = indexByTest(preAnalysisResults);
+
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("{\n");
+            w.write("  \"schemaVersion\": " + SCHEMA_VERSION + ",\n");
+            w.write("  \"createdAt\": " + Json.quote(new Date().toString()) + ",\n");
+            w.write("  \"environment\": {\"java\": " + Json.quote(System.getProperty("java.version"))
+                    + ", \"os\": " + Json.quote(System.getProperty("os.name") + "/" + System.getProperty("os.arch"))
+                    + ", \"cpus\": " + Runtime.getRuntime().availableProcessors() + "},\n");
+            w.write("  \"tests\": [");
+
+            for (int t = 0; t < results.size(); t++) {
+                ManualTestRunner.TestExecutionResult testResult = results.get(t);
+                TestCase testCase = testResult.testCase;
+                w.write(t == 0 ? "\n" : ",\n");
+                w.write("    {\n");
+                w.write("      \"name\": " + Json.quote(testCase.getName()) + ",\n");
+                w.write("      \"textLength\": " + testCase.getTextLength() + ",\n");
+                w.write("      \"patternLength\": " + testCase.getPatternLength() + ",\n");
+                w.write("      \"fastest\": " + Json.quote(fastestAlgorithm(testResult)) + ",\n");
+                w.write("      \"algorithms\": [");
+
+                int a = 0;
+                for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+                    w.write(a++ == 0 ? "\n" : ",\n");
+                    w.write("        {\"name\": " + Json.quote(algResult.algorithmName)
+                            + ", \"status\": " + Json.quote(algResult.status())
+                            + ", \"avgNanos\": " + algResult.executionTimeNanos
+                            + ", \"runNanos\": " + Json.array(algResult.allRunTimes)
+                            + ", \"allocatedBytes\": " + algResult.allocatedBytes + "}");
+                }
+                w.write("\n      ]");
+
+                PreAnalysisComparison.ComparisonResult pre = byTest.get(testCase.getName());
+                if (pre != null) {
+                    w.write(",\n      \"preAnalysis\": {\n");
+                    w.write("        \"chosen\": " + Json.quote(pre.chosenAlgorithm) + ",\n");
+                    w.write("        \"analysisNanos\": " + pre.preAnalysisTimeNanos + ",\n");
+                    w.write("        \"analysisRunNanos\": " + Json.array(pre.preAnalysisRunTimes) + ",\n");
+                    w.write("        \"chosenNanos\": " + pre.chosenAlgorithmTimeNanos + ",\n");
+                    w.write("        \"chosenRunNanos\": " + Json.array(pre.chosenRunTimes) + ",\n");
+                    w.write("        \"totalNanos\": " + pre.totalTimeWithPreAnalysis + ",\n");
+                    w.write("        \"fastest\": " + Json.quote(pre.fastestAlgorithm) + ",\n");
+                    w.write("        \"fastestNanos\": " + pre.fastestAlgorithmTime + ",\n");
+                    w.write("        \"timeSavedOrLostNanos\": " + pre.timeSavedOrLost + ",\n");
+                    w.write("        \"choseFastest\": " + pre.preAnalysisChoseFastest + ",\n");
+                    w.write("        \"algorithmNanos\": {");
+                    int k = 0;
+                    for (String alg : pre.allAlgorithmNames) {
+                        w.write((k++ == 0 ? "" : ", ") + Json.quote(alg) + ": " + pre.allAlgorithmTimes.get(alg));
+                    }
+                    w.write("}\n      }");
+                }
+                w.write("\n    }");
+            }
+            w.write("\n  ],\n");
+
+            int correct = 0;
+            long saved = 0;
+            for (PreAnalysisComparison.ComparisonResult pre : preAnalysisResults) {
+                correct += pre.preAnalysisChoseFastest ? 1 : 0;
+                saved += pre.timeSavedOrLost;
+            }
+            w.write("  \"preAnalysisSummary\": {\"tests\": " + preAnalysisResults.size()
+                    + ", \"correctChoices\": " + correct
+                    + ", \"totalTimeSavedOrLostNanos\": " + saved + "}\n");
+            w.write("}\n");
+        }
+        return file;
+    }
+
+    /**
+     * One row per (test case, algorithm)
+     */
+    static Path writeResultsCsv(Path file, List<ManualTestRunner.TestExecutionResult> results) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("test,textLength,patternLength,algorithm,status,avgNanos,run1Nanos,run2Nanos,run3Nanos,"
+                    + "run4Nanos,run5Nanos,allocatedBytes,fastest\n");
+            for (ManualTestRunner.TestExecutionResult testResult : results) {
+                String fastest = fastestAlgorithm(testResult);
+                for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+                    StringBuilder row = new StringBuilder();
+                    row.append(csv(testResult.testCase.getName())).append(',')
+                            .append(testResult.testCase.getTextLength()).append(',')
+                            .append(testResult.testCase.getPatternLength()).append(',')
+                            .append(csv(algResult.algorithmName)).append(',')
+                            .append(algResult.status()).append(',')
+                            .append(algResult.executionTimeNanos);
+                    for (long run : algResult.allRunTimes) {
+                        row.append(',').append(run);
+                    }
+                    row.append(',').append(algResult.allocatedBytes)
+                            .append(',').append(algResult.algorithmName.equals(fastest));
+                    w.write(row.append('\n').toString());
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * One row per test case with the selector's decision
+     */
+    static Path writePreAnalysisCsv(Path file, List<PreAnalysisComparison.ComparisonResult> preAnalysisResults)
+            throws IOException {
+        Set<String> algorithms = new LinkedHashSet<>();
+        for (PreAnalysisComparison.ComparisonResult pre : preAnalysisResults) {
+            algorithms.addAll(pre.allAlgorithmNames);
+        }
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("test,chosen,analysisNanos,chosenNanos,totalNanos,"
+                    + "fastest,fastestNanos,timeSavedOrLostNanos,choseFastest");
+            for (String alg : algorithms) {
+                header.append(',').append(csv(alg + "Nanos"));
+            }
+            w.write(header.append('\n').toString());
+
+            for (PreAnalysisComparison.ComparisonResult pre : preAnalysisResults) {
+                StringBuilder row = new StringBuilder();
+                row.append(csv(pre.testCaseName)).append(',')
+                        .append(csv(pre.chosenAlgorithm)).append(',')
+                        .append(pre.preAnalysisTimeNanos).append(',')
+                        .append(pre.chosenAlgorithmTimeNanos).append(',')
+                        .append(pre.totalTimeWithPreAnalysis).append(',')
+                        .append(csv(pre.fastestAlgorithm)).append(',')
+                        .append(pre.fastestAlgorithmTime).append(',')
+                        .append(pre.timeSavedOrLost).append(',')
+                        .append(pre.preAnalysisChoseFastest);
+                for (String alg : algorithms) {
+                    Long time = pre.allAlgorithmTimes.get(alg);
+                    row.append(',').append(time != null ? time.toString() : "");
+                }
+                w.write(row.append('\n').toString());
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Self-contained HTML report with one bar chart per test case
+     */
+    static Path writeHtml(Path file,
+                          List<ManualTestRunner.TestExecutionResult> results,
+                          List<PreAnalysisComparison.ComparisonResult> preAnalysisResults) throws IOException {
+        final String[] colors = {"#4e79a7", "#f28e2b", "#59a14f", "#e15759", "#76b7b2", "#edc948", "#b07aa1"};
+        Map<String, PreAnalysisComparison.ComparisonResult> byTest = indexByTest(preAnalysisResults);
+
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>String Matching Benchmark</title>\n");
+            w.write("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}"
+                    + "td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}"
+                    + "td:first-child,th:first-child{text-align:left}.good{color:#2a7d2a}.bad{color:#c0392b}"
+                    + "h3{margin-bottom:0.2em}</style></head><body>\n");
+            w.write("<h1>String Matching Benchmark</h1>\n<p>" + html(new Date().toString())
+                    + " &middot; Java " + html(System.getProperty("java.version")) + "</p>\n");
+
+            if (!preAnalysisResults.isEmpty()) {
+                w.write("<h2>Pre-analysis decisions</h2>\n<table><tr><th>Test Case</th><th>Chosen</th>"
+                        + "<th>Analysis (&mu;s)</th><th>Exec (&mu;s)</th><th>Fastest</th>"
+                        + "<th>Fastest (&mu;s)</th><th>Saved/Lost (&mu;s)</th></tr>\n");
+                for (PreAnalysisComparison.ComparisonResult pre : preAnalysisResults) {
+                    String cls = pre.preAnalysisChoseFastest ? "good" : "bad";
+                    w.write(String.format(Locale.ROOT,
+                            "<tr><td>%s</td><td class=\"%s\">%s</td><td>%.2f</td><td>%.2f</td><td>%s</td>"
+                                    + "<td>%.2f</td><td class=\"%s\">%.2f</td></tr>%n",
+                            html(pre.testCaseName), cls, html(pre.chosenAlgorithm),
+                            pre.preAnalysisTimeNanos / 1000.0, pre.chosenAlgorithmTimeNanos / 1000.0,
+                            html(pre.fastestAlgorithm), pre.fastestAlgorithmTime / 1000.0,
+                            pre.timeSavedOrLost >= 0 ? "good" : "bad", pre.timeSavedOrLost / 1000.0));
+                }
+                w.write("</table>\n");
+            }
+
+            w.write("<h2>Execution time per test case (average of 5 runs)</h2>\n");
+            for (ManualTestRunner.TestExecutionResult testResult : results) {
+                long max = 1;
+                for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+                    max = Math.max(max, algResult.executionTimeNanos);
+                }
+                PreAnalysisComparison.ComparisonResult pre = byTest.get(testResult.testCase.getName());
+                w.write("<h3>" + html(testResult.testCase.getName()) + "</h3>\n");
+                if (pre != null) {
+                    w.write("<div>chosen: <b>" + html(pre.chosenAlgorithm) + "</b>, fastest: <b>"
+                            + html(pre.fastestAlgorithm) + "</b></div>\n");
+                }
+
+                int rows = testResult.algorithmResults.size();
+                w.write("<svg width=\"640\" height=\"" + (rows * 22 + 4) + "\" xmlns=\"http://www.w3.org/2000/svg\">\n");
+                int row = 0;
+                for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+                    int y = row * 22 + 2;
+                    int width = (int) Math.max(1, 400.0 * algResult.executionTimeNanos / max);
+                    String label = "PASS".equals(algResult.status())
+                            ? String.format(Locale.ROOT, "%.3f μs", algResult.executionTimeNanos / 1000.0)
+                            : algResult.status();
+                    w.write("<text x=\"0\" y=\"" + (y + 14) + "\" font-size=\"12\">" + html(algResult.algorithmName) + "</text>");
+                    w.write("<rect x=\"110\" y=\"" + y + "\" width=\"" + width + "\" height=\"18\" fill=\""
+                            + colors[row % colors.length] + "\"/>");
+                    w.write("<text x=\"" + (115 + width) + "\" y=\"" + (y + 14) + "\" font-size=\"12\">"
+                            + html(label) + "</text>\n");
+                    row++;
+                }
+                w.write("</svg>\n");
+            }
+            w.write("</body></html>\n");
+        }
+        return file;
+    }
+
+    private static Map<String, PreAnalysisComparison.ComparisonResult> indexByTest(
+            List<PreAnalysisComparison.ComparisonResult> preAnalysisResults) {
+        Map<String, PreAnalysisComparison.ComparisonResult> byTest = new HashMap<>();
+        for (PreAnalysisComparison.ComparisonResult pre : preAnalysisResults) {
+            byTest.put(pre.testCaseName, pre);
+        }
+        return byTest;
+    }
+
+    /**
+     * Same winner rule as the console table: fastest passing implementation
+     */
+    private static String fastestAlgorithm(ManualTestRunner.TestExecutionResult testResult) {
+        String fastest = null;
+        long fastestTime = Long.MAX_VALUE;
+        for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+            if (algResult.implemented && algResult.passed && algResult.executionTimeNanos < fastestTime) {
+                fastestTime = algResult.executionTimeNanos;
+                fastest = algResult.algorithmName;
+            }
+        }
+        return fastest;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String html(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
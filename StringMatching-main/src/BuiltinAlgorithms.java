@@ -0,0 +1,12 @@
+import java.util.List;
+
+/**
+ * Provider of the algorithms in Analysis.java
+ */
+public final class BuiltinAlgorithms implements SolutionProvider {
+
+    @Override
+    public List<Solution> solutions() {
+        return Analysis.builtins();
+    }
+}
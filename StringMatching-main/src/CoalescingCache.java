@@ -0,0 +1,258 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Result cache that also merges concurrent identical computations
+ *
+ * get(key, loader) answers from the cache when it can. Otherwise the first
+ * caller for a key runs the loader, and every caller arriving with the same key
+ * while it runs waits for that result instead of computing it again
+ * (coalescing), at most as long as it is willing to wait. Finished results
+ * stay cached for a short time-to-live. The cache is bounded by an estimated
+ * size in bytes given by the weigher, and evicts the least recently used
+ * entries first.
+ *
+ * Thread-safe. The cache itself is one synchronized LinkedHashMap: lookups are
+ * short, and the loaders run outside the lock.
+ */
+public final class CoalescingCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiresAt;
+
+        Entry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final long maxWeight;
+    private final ToLongBiFunction<K, V> weigher;
+    private final Predicate<V> cacheable;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param ttlMillis How long a result is served from the cache
+     * @param maxWeight Upper bound for the summed weights (estimated bytes)
+     * @param weigher Estimated bytes retained by an entry, key included
+     * @param cacheable Results failing this are shared with waiting callers but not cached
+     */
+    public CoalescingCache(long ttlMillis, long maxWeight, ToLongBiFunction<K, V> weigher, Predicate<V> cacheable) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Cached result for key, or the result of the computation already running
+     * for it, or loader's result (computed on this thread)
+     * Exceptions of the loader reach the caller that ran it and every waiter
+     */
+    public V get(K key, Supplier<V> loader) {
+        return get(key, loader, 0, null);
+    }
+
+    /**
+     * Like get(key, loader), but a caller waiting for a running computation
+     * gives up after maxWaitMillis and returns timedOut's value instead
+     * @param maxWaitMillis Longest wait for a computation of another caller, 0 waits without limit
+     */
+    public V get(K key, Supplier<V> loader, long maxWaitMillis, Supplier<V> timedOut) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running, maxWaitMillis, timedOut);
+        }
+        try {
+            // The previous computation may have finished between the lookup and putIfAbsent
+            V value = lookup(key);
+            if (value != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                value = loader.get();
+                if (cacheable.test(value)) {
+                    store(key, value);
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V await(CompletableFuture<V> running, long maxWaitMillis, Supplier<V> timedOut) {
+        if (maxWaitMillis <= 0) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            return running.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            waitTimeouts.incrementAndGet();
+            return timedOut.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            waitTimeouts.incrementAndGet();
+            return timedOut.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private V lookup(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key);
+                weight -= entry.weight;
+                expirations.incrementAndGet();
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void store(K key, V value) {
+        long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> previous = entries.put(key, new Entry<>(value, entryWeight, now + ttlNanos));
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            // Least recently used first; expired entries are dropped on the way
+            Iterator<Entry<V>> eldest = entries.values().iterator();
+            while (eldest.hasNext() && weight > maxWeight) {
+                Entry<V> entry = eldest.next();
+                eldest.remove();
+                weight -= entry.weight;
+                if (now - entry.expiresAt > 0) {
+                    expirations.incrementAndGet();
+                } else {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Summed weight of the cached entries (estimated bytes)
+     */
+    public long weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Waiting callers that gave up on a running computation
+     */
+    public long waitTimeouts() {
+        return waitTimeouts.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long expirations() {
+        return expirations.get();
+    }
+
+    /**
+     * Fraction of get calls answered from the cache
+     */
+    public double hitRate() {
+        long total = hits.get() + misses.get() + coalesced.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Fraction of get calls that waited for an identical computation in flight
+     */
+    public double coalesceRate() {
+        long total = hits.get() + misses.get() + coalesced.get();
+        return total == 0 ? 0 : (double) coalesced.get() / total;
+    }
+}
@@ -0,0 +1,354 @@
+import java.util.*;
+
+/**
+ * Empirical complexity check for every registered algorithm
+ *
+ * For each corpus family the text length n and pattern length m are swept
+ * geometrically, a line is fitted through (log size, log time), and the slope
+ * is the measured growth exponent:
+ *   n-sweep:  m fixed, n doubles        -> exponent of n
+ *   m-sweep:  n fixed, m doubles        -> exponent of m
+ *   joint:    m = n / 8, both double    -> exponent of n*m together
+ *
+ * An exponent is flagged when it exceeds the bound the algorithm claims
+ * (README / strategy description) or when it is clearly superlinear,
+ * e.g. GoCrazy or Naive going quadratic on periodic text.
+ */
+public class ComplexityScaling {
+
+    // Slack for timer noise before a slope counts as "faster than expected"
+    private static final double TOLERANCE = 0.25;
+    // Stop a sweep once a single search takes longer than this
+    private static final long MAX_POINT_NANOS = 1_000_000_000L;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    /**
+     * Claimed growth of an algorithm: time ~ n^nExponent * m^mExponent
+     * (for the m-sweep with m much smaller than n, O(n+m) means exponent 0)
+     */
+    static class Claim {
+        final double nExponent;
+        final double mExponent;
+        final String description;
+
+        Claim(double nExponent, double mExponent, String description) {
+            this.nExponent = nExponent;
+            this.mExponent = mExponent;
+            this.description = description;
+        }
+
+        double jointExponent() {
+            return nExponent + mExponent;
+        }
+    }
+
+    private static final Map<String, Claim> CLAIMS = new HashMap<>();
+    static {
+        CLAIMS.put("Naive", new Claim(1, 1, "O(n*m)"));
+        CLAIMS.put("KMP", new Claim(1, 0, "O(n+m)"));
+        CLAIMS.put("RabinKarp", new Claim(1, 0, "O(n+m) avg"));
+        CLAIMS.put("BoyerMoore", new Claim(1, 0, "O(n+m)"));
+        CLAIMS.put("GoCrazy", new Claim(1, 0, "O(n+m) avg"));
+        CLAIMS.put("Introspective", new Claim(1, 0, "O(n+m)"));
+    }
+
+    /**
+     * A family of generated inputs
+     */
+    static abstract class CorpusFamily {
+        final String name;
+
+        CorpusFamily(String name) {
+            this.name = name;
+        }
+
+        abstract String text(int n, Random random);
+
+        abstract String pattern(String text, int m, Random random);
+    }
+
+    /**
+     * Uniform random text over an alphabet, pattern cut from the text
+     */
+    static class RandomFamily extends CorpusFamily {
+        private final String alphabet;
+
+        RandomFamily(String name, String alphabet) {
+            super(name);
+            this.alphabet = alphabet;
+        }
+
+        @Override
+        String text(int n, Random random) {
+            char[] chars = new char[n];
+            for (int i = 0; i < n; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            return new String(chars);
+        }
+
+        @Override
+        String pattern(String text, int m, Random random) {
+            int start = random.nextInt(text.length() - m + 1);
+            return text.substring(start, start + m);
+        }
+    }
+
+    /**
+     * Text "AAA...A" with a pattern built from 'A' plus one distinguishing char
+     */
+    static class PeriodicFamily extends CorpusFamily {
+        private final boolean breakAtEnd;
+        private final boolean allMatch;
+
+        PeriodicFamily(String name, boolean breakAtEnd, boolean allMatch) {
+            super(name);
+            this.breakAtEnd = breakAtEnd;
+            this.allMatch = allMatch;
+        }
+
+        @Override
+        String text(int n, Random random) {
+            return "A".repeat(n);
+        }
+
+        @Override
+        String pattern(String text, int m, Random random) {
+            if (allMatch) {
+                return "A".repeat(m);
+            }
+            return breakAtEnd ? "A".repeat(m - 1) + "B" : "B" + "A".repeat(m - 1);
+        }
+    }
+
+    static List<CorpusFamily> defaultFamilies() {
+        List<CorpusFamily> families = new ArrayList<>();
+        families.add(new RandomFamily("random A-Z", "ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
+        families.add(new RandomFamily("DNA (ACGT)", "ACGT"));
+        families.add(new PeriodicFamily("A^n / A^(m-1)B", true, false));
+        families.add(new PeriodicFamily("A^n / BA^(m-1)", false, false));
+        families.add(new PeriodicFamily("A^n / A^m (all match)", false, true));
+        return families;
+    }
+
+    /**
+     * Measured exponents of one algorithm on one family
+     */
+    static class ScalingResult {
+        String algorithmName;
+        String familyName;
+        double nExponent = Double.NaN;
+        double mExponent = Double.NaN;
+        double jointExponent = Double.NaN;
+        List<String> flags = new ArrayList<>();
+    }
+
+    /**
+     * Sweep sizes for the three fits
+     */
+    static class SweepConfig {
+        int nSweepMinLog = 12, nSweepMaxLog = 18, nSweepPatternLength = 16;
+        int mSweepMinLog = 2, mSweepMaxLog = 10, mSweepTextLength = 1 << 16;
+        int jointMinLog = 10, jointMaxLog = 15, jointRatio = 8;
+
+        static SweepConfig quick() {
+            SweepConfig config = new SweepConfig();
+            config.nSweepMinLog = 10;
+            config.nSweepMaxLog = 15;
+            config.mSweepMaxLog = 8;
+            config.mSweepTextLength = 1 << 14;
+            config.jointMinLog = 9;
+            config.jointMaxLog = 13;
+            return config;
+        }
+    }
+
+    /**
+     * Run all sweeps for all algorithms and families
+     */
+    public static List<ScalingResult> run(List<Solution> solutions, List<CorpusFamily> families, SweepConfig config) {
+        List<ScalingResult> results = new ArrayList<>();
+        for (Solution solution : solutions) {
+            warmUp(solution, families);
+        }
+        for (CorpusFamily family : families) {
+            System.out.println("Sweeping family: " + family.name);
+            for (Solution solution : solutions) {
+                ScalingResult result = new ScalingResult();
+                result.algorithmName = solution.getName();
+                result.familyName = family.name;
+
+                List<double[]> points = new ArrayList<>();
+                for (int log = config.nSweepMinLog; log <= config.nSweepMaxLog; log++) {
+                    int n = 1 << log;
+                    if (!measurePoint(solution, family, n, config.nSweepPatternLength, n, points)) break;
+                }
+                result.nExponent = fitSlope(points);
+
+                points = new ArrayList<>();
+                for (int log = config.mSweepMinLog; log <= config.mSweepMaxLog; log++) {
+                    int m = 1 << log;
+                    if (!measurePoint(solution, family, config.mSweepTextLength, m, m, points)) break;
+                }
+                result.mExponent = fitSlope(points);
+
+                points = new ArrayList<>();
+                for (int log = config.jointMinLog; log <= config.jointMaxLog; log++) {
+                    int n = 1 << log;
+                    if (!measurePoint(solution, family, n, Math.max(2, n / config.jointRatio), n, points)) break;
+                }
+                result.jointExponent = fitSlope(points);
+
+                flag(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get every algorithm JIT-compiled before the first timed point,
+     * otherwise the small sizes of the first sweep are measured interpreted
+     */
+    private static void warmUp(Solution solution, List<CorpusFamily> families) {
+        Random random = new Random(7);
+        try {
+            for (CorpusFamily family : families) {
+                String text = family.text(4096, random);
+                String pattern = family.pattern(text, 8, random);
+                for (int i = 0; i < 200; i++) {
+                    solution.Solve(text, pattern);
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            // Not implemented, the sweeps skip it too
+        }
+    }
+
+    /**
+     * Time one (n, m) point and add (log size, log time) to points.
+     * Returns false once the point got too slow to keep sweeping.
+     */
+    private static boolean measurePoint(Solution solution, CorpusFamily family, int n, int m, int size,
+                                        List<double[]> points) {
+        Random random = new Random(31L * n + m);
+        String text = family.text(n, random);
+        String pattern = family.pattern(text, m, random);
+
+        try {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                solution.Solve(text, pattern);
+            }
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                long start = System.nanoTime();
+                solution.Solve(text, pattern);
+                best = Math.min(best, System.nanoTime() - start);
+                if (best > MAX_POINT_NANOS) {
+                    break;
+                }
+            }
+            points.add(new double[]{Math.log(size), Math.log(Math.max(best, 1))});
+            return best <= MAX_POINT_NANOS;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Least squares slope through (x, y) points, NaN if fewer than 3 points
+     */
+    static double fitSlope(List<double[]> points) {
+        if (points.size() < 3) {
+            return Double.NaN;
+        }
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (double[] p : points) {
+            sumX += p[0];
+            sumY += p[1];
+            sumXX += p[0] * p[0];
+            sumXY += p[0] * p[1];
+        }
+        int k = points.size();
+        double denominator = k * sumXX - sumX * sumX;
+        return denominator == 0 ? Double.NaN : (k * sumXY - sumX * sumY) / denominator;
+    }
+
+    private static void flag(ScalingResult result) {
+        Claim claim = CLAIMS.get(result.algorithmName);
+        if (claim != null) {
+            if (result.nExponent > claim.nExponent + TOLERANCE) {
+                result.flags.add("n-exp exceeds " + claim.description);
+            }
+            if (result.mExponent > claim.mExponent + TOLERANCE) {
+                result.flags.add("m-exp exceeds " + claim.description);
+            }
+            if (result.jointExponent > claim.jointExponent() + TOLERANCE) {
+                result.flags.add("joint exceeds " + claim.description);
+            }
+        }
+        if (result.jointExponent > 1 + TOLERANCE) {
+            result.flags.add(result.jointExponent > 1.75 ? "quadratic" : "superlinear");
+        }
+    }
+
+    /**
+     * Print the measured exponents per family
+     */
+    public static void printResults(List<ScalingResult> results) {
+        final String RED = "\u001B[31m";
+        final String YELLOW = "\u001B[33m";
+        final String RESET = "\u001B[0m";
+
+        System.out.println("\n" + "=".repeat(120));
+        System.out.println("EMPIRICAL COMPLEXITY SCALING - fitted log-log growth exponents");
+        System.out.println("=".repeat(120));
+        System.out.printf("%-24s %-12s %-12s %8s %8s %8s   %s%n",
+                "Family", "Algorithm", "Claim", "n-exp", "m-exp", "joint", "Flags");
+        System.out.println("-".repeat(120));
+
+        int flagged = 0;
+        String lastFamily = null;
+        for (ScalingResult result : results) {
+            if (lastFamily != null && !lastFamily.equals(result.familyName)) {
+                System.out.println("-".repeat(120));
+            }
+            lastFamily = result.familyName;
+
+            Claim claim = CLAIMS.get(result.algorithmName);
+            String flags = result.flags.isEmpty() ? "✓" : "✗ " + String.join(", ", result.flags);
+            boolean exceedsClaim = false;
+            for (String flag : result.flags) {
+                exceedsClaim |= flag.contains("exceeds");
+            }
+            String color = exceedsClaim ? RED : result.flags.isEmpty() ? "" : YELLOW;
+            if (!result.flags.isEmpty()) {
+                flagged++;
+            }
+
+            System.out.printf("%s%-24s %-12s %-12s %8s %8s %8s   %s%s%n",
+                    color,
+                    result.familyName,
+                    result.algorithmName,
+                    claim != null ? claim.description : "?",
+                    formatExponent(result.nExponent),
+                    formatExponent(result.mExponent),
+                    formatExponent(result.jointExponent),
+                    flags,
+                    color.isEmpty() ? "" : RESET);
+        }
+        System.out.println("=".repeat(120));
+        System.out.println("\nINTERPRETATION:");
+        System.out.println("- 'n-exp': growth with text length (m fixed), 1.0 = linear");
+        System.out.println("- 'm-exp': growth with pattern length (n fixed), 0.0 = independent of m, 1.0 = O(n*m)");
+        System.out.println("- 'joint': growth when n and m double together (m = n/8), 2.0 = quadratic");
+        System.out.println("- Red = grows faster than the claimed bound, Yellow = superlinear but within claim");
+        System.out.println("- Flagged cases: " + flagged + " / " + results.size());
+        System.out.println("=".repeat(120));
+    }
+
+    private static String formatExponent(double exponent) {
+        return Double.isNaN(exponent) ? "-" : String.format("%.2f", exponent);
+    }
+}
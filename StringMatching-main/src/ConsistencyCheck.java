@@ -0,0 +1,484 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * Differential checks of the secondary result and search APIs
+ *
+ * The expected results (16_all_same_character, 21_empty_pattern, ...) only
+ * pin down findMatches. Each check here compares another API against a
+ * plain reference built from findMatches or a sorted int[], on the loaded
+ * test cases plus generated inputs, and counts disagreements. Run with
+ * "ManualTest check"; any failure is a regression.
+ */
+public final class ConsistencyCheck {
+
+    static final int MAX_REPORTED = 10;
+
+    /**
+     * Outcome of one check: how many comparisons, how many failed, the first messages
+     */
+    public static final class Report {
+        final String name;
+        int checks;
+        int failures;
+        final List<String> messages = new ArrayList<>();
+
+        Report(String name) {
+            this.name = name;
+        }
+
+        void check(boolean ok, String message) {
+            checks++;
+            if (!ok) {
+                failures++;
+                if (messages.size() < MAX_REPORTED) {
+                    messages.add(message);
+                }
+            }
+        }
+
+        public boolean passed() {
+            return failures == 0;
+        }
+    }
+
+    private ConsistencyCheck() {
+    }
+
+    /**
+     * RoaringMatchSet filled by every algorithm and from generated position sets
+     * (sparse, at the array/bitmap threshold, dense, runs across chunk borders),
+     * before and after optimize(), and its union/intersection, against sorted int[]
+     */
+    public static Report roaring(List<TestCase> tests, long seed) {
+        Report report = new Report("RoaringMatchSet");
+        for (TestCase test : tests) {
+            String text = test.getText();
+            String pattern = test.getPattern();
+            // Second operand for union/intersection: the first char matches a superset
+            String other = pattern.isEmpty() ? "" : pattern.substring(0, 1);
+            for (Solution algorithm : AlgorithmRegistry.all()) {
+                String where = test.getName() + " / " + algorithm.getName();
+                int[] expected = algorithm.findMatches(text, pattern).toArray();
+                RoaringMatchSet set = new RoaringMatchSet();
+                algorithm.search(text, pattern, set);
+                compare(report, where, set, expected);
+                RoaringMatchSet otherSet = new RoaringMatchSet();
+                algorithm.search(text, other, otherSet);
+                int[] otherExpected = algorithm.findMatches(text, other).toArray();
+                compareSetOperations(report, where, set, expected, otherSet, otherExpected);
+                set.optimize();
+                compare(report, where + " optimized", set, expected);
+                compareSetOperations(report, where + " optimized", set, expected, otherSet.optimize(), otherExpected);
+            }
+        }
+
+        Random random = new Random(seed);
+        for (int round = 0; round < 200; round++) {
+            String where = "generated #" + round;
+            int[] first = generatePositions(random);
+            int[] second = generatePositions(random);
+            RoaringMatchSet set = fill(first, random, round % 2 == 0);
+            RoaringMatchSet otherSet = fill(second, random, round % 2 != 0);
+            compare(report, where, set, first);
+            compareSetOperations(report, where, set, first, otherSet, second);
+            set.optimize();
+            otherSet.optimize();
+            compare(report, where + " optimized", set, first);
+            compareSetOperations(report, where + " optimized", set, first, otherSet, second);
+
+            // Adding to optimized (run/bitmap/array) containers
+            int[] extra = new int[1 + random.nextInt(64)];
+            for (int i = 0; i < extra.length; i++) {
+                extra[i] = random.nextInt(4 << 16);
+                set.add(extra[i]);
+            }
+            Arrays.sort(extra);
+            compare(report, where + " optimized + add", set, union(first, extra));
+        }
+        return report;
+    }
+
+    /**
+     * Range search(text, pattern, from, to) and searchReverse of every algorithm
+     * against a brute-force scan filtered to the range (reversed for searchReverse),
+     * on the test cases and on generated texts, plus early stop and bounds checks
+     */
+    public static Report ranges(List<TestCase> tests, long seed) {
+        Report report = new Report("range / reverse search");
+        Random random = new Random(seed);
+        for (TestCase test : tests) {
+            checkRanges(report, test.getName(), test.getText(), test.getPattern(), random);
+        }
+        // Small alphabets for many overlapping matches; 'a' and U+0161 share the low byte
+        // the skip tables are indexed by
+        String[] alphabets = {"ab", "abc", "a\u0161b", "acgt"};
+        for (int round = 0; round < 300; round++) {
+            String alphabet = alphabets[round % alphabets.length];
+            String text = randomText(random, alphabet, random.nextInt(400));
+            String pattern;
+            int m = random.nextInt(10);
+            if (random.nextBoolean() && m <= text.length()) {
+                int start = random.nextInt(text.length() - m + 1);
+                pattern = text.substring(start, start + m);
+            } else {
+                pattern = randomText(random, alphabet, m);
+            }
+            checkRanges(report, "generated #" + round, text, pattern, random);
+        }
+        return report;
+    }
+
+    private static void checkRanges(Report report, String name, String text, String pattern, Random random) {
+        int n = text.length();
+        int[] all = bruteForce(text, pattern);
+        for (Solution algorithm : AlgorithmRegistry.all()) {
+            String where = name + " / " + algorithm.getName();
+            for (int r = 0; r < 12; r++) {
+                int from;
+                int to;
+                if (r == 0) {
+                    from = 0;
+                    to = n;
+                } else if (r == 1) {
+                    from = n;
+                    to = n;
+                } else {
+                    from = random.nextInt(n + 1);
+                    to = from + random.nextInt(n - from + 1);
+                }
+                int[] expected = inRange(all, pattern.length(), from, to);
+                String range = where + " [" + from + ", " + to + ")";
+
+                MatchSet forward = new MatchSet();
+                algorithm.search(text, pattern, from, to, forward);
+                report.check(Arrays.equals(forward.toArray(), expected),
+                        range + ": search gave " + forward + ", expected " + Arrays.toString(expected));
+
+                MatchSet reverse = new MatchSet();
+                algorithm.searchReverse(text, pattern, from, to, reverse);
+                int[] reversed = new int[expected.length];
+                for (int i = 0; i < expected.length; i++) {
+                    reversed[i] = expected[expected.length - 1 - i];
+                }
+                report.check(Arrays.equals(reverse.toArray(), reversed),
+                        range + ": searchReverse gave " + reverse + ", expected " + Arrays.toString(reversed));
+
+                // Stopping after the first report: leftmost forward, rightmost reverse
+                int[] first = {-1, -1};
+                algorithm.search(text, pattern, from, to, position -> {
+                    first[0] = position;
+                    return false;
+                });
+                algorithm.searchReverse(text, pattern, from, to, position -> {
+                    first[1] = position;
+                    return false;
+                });
+                report.check(first[0] == (expected.length == 0 ? -1 : expected[0])
+                                && first[1] == (expected.length == 0 ? -1 : expected[expected.length - 1]),
+                        range + ": early stop reported " + first[0] + " / " + first[1]);
+            }
+
+            int[][] invalid = {{-1, n}, {0, n + 1}, {n, n == 0 ? -1 : n - 1}};
+            for (int[] bounds : invalid) {
+                report.check(throwsOutOfBounds(() -> algorithm.search(text, pattern, bounds[0], bounds[1], new MatchSet()))
+                                && throwsOutOfBounds(() -> algorithm.searchReverse(text, pattern, bounds[0], bounds[1],
+                                new MatchSet())),
+                        where + ": range [" + bounds[0] + ", " + bounds[1] + ") did not throw IndexOutOfBoundsException");
+            }
+        }
+    }
+
+    private static boolean throwsOutOfBounds(Runnable search) {
+        try {
+            search.run();
+            return false;
+        } catch (IndexOutOfBoundsException expected) {
+            return true;
+        }
+    }
+
+    /**
+     * IncrementalMatcher (KMP and Horspool) fed the test case texts and generated
+     * texts in random chunk sizes (including empty and 1-char chunks), against
+     * findMatches on the whole text; also after reset() and with a sink that
+     * stops at the first match of every chunk
+     */
+    public static Report incremental(List<TestCase> tests, long seed) {
+        Report report = new Report("IncrementalMatcher");
+        Random random = new Random(seed);
+        for (TestCase test : tests) {
+            String pattern = test.getPattern();
+            if (!pattern.isEmpty()) {
+                checkIncremental(report, test.getName(), test.getText(), pattern, random);
+            }
+        }
+        String[] alphabets = {"ab", "abc", "a\u0161b", "acgt"};
+        for (int round = 0; round < 300; round++) {
+            String alphabet = alphabets[round % alphabets.length];
+            String text = randomText(random, alphabet, random.nextInt(600));
+            int m = 1 + random.nextInt(12);
+            String pattern;
+            if (random.nextBoolean() && m <= text.length()) {
+                int start = random.nextInt(text.length() - m + 1);
+                pattern = text.substring(start, start + m);
+            } else {
+                pattern = randomText(random, alphabet, m);
+            }
+            checkIncremental(report, "generated #" + round, text, pattern, random);
+        }
+        return report;
+    }
+
+    private static void checkIncremental(Report report, String name, String text, String pattern, Random random) {
+        int m = pattern.length();
+        int[] expected = AlgorithmRegistry.get("Naive").findMatches(text, pattern).toArray();
+        for (int kind = 0; kind < 2; kind++) {
+            IncrementalMatcher matcher = kind == 0 ? IncrementalMatcher.kmp(pattern) : IncrementalMatcher.horspool(pattern);
+            String where = name + " / " + (kind == 0 ? "kmp" : "horspool");
+            for (int round = 0; round < 4; round++) {
+                // Chunk sizes around m, where the carried state matters most
+                int maxChunk = round == 0 ? 1 : round == 1 ? Math.max(1, m) : 1 + random.nextInt(2 * m + 8);
+                List<Integer> cuts = new ArrayList<>();
+                for (int end = 0; end < text.length(); ) {
+                    end = Math.min(text.length(), end + random.nextInt(maxChunk + 1));
+                    cuts.add(end);
+                }
+                cuts.add(text.length());
+
+                matcher.reset();
+                MatchSet all = new MatchSet();
+                int start = 0;
+                for (int end : cuts) {
+                    matcher.append(text.subSequence(start, end), position -> all.accept((int) position));
+                    start = end;
+                }
+                report.check(Arrays.equals(all.toArray(), expected) && matcher.length() == text.length(),
+                        where + " chunks<=" + maxChunk + ": got " + all + ", expected " + Arrays.toString(expected));
+
+                // First match ending in each chunk only
+                matcher.reset();
+                MatchSet firsts = new MatchSet();
+                start = 0;
+                for (int end : cuts) {
+                    matcher.append(text.subSequence(start, end), position -> {
+                        firsts.add((int) position);
+                        return false;
+                    });
+                    start = end;
+                }
+                MatchSet expectedFirsts = new MatchSet();
+                int next = 0;
+                start = 0;
+                for (int end : cuts) {
+                    while (next < expected.length && expected[next] + m <= start) {
+                        next++;
+                    }
+                    if (next < expected.length && expected[next] + m <= end) {
+                        expectedFirsts.add(expected[next]);
+                    }
+                    start = end;
+                }
+                report.check(firsts.equals(expectedFirsts),
+                        where + " chunks<=" + maxChunk + " stopping: got " + firsts + ", expected " + expectedFirsts);
+            }
+        }
+    }
+
+    /**
+     * Every position where pattern occurs (0..n for an empty pattern)
+     */
+    private static int[] bruteForce(String text, String pattern) {
+        MatchSet positions = new MatchSet();
+        for (int i = 0; i + pattern.length() <= text.length(); i++) {
+            if (text.regionMatches(i, pattern, 0, pattern.length())) {
+                positions.add(i);
+            }
+        }
+        return positions.toArray();
+    }
+
+    /**
+     * The positions whose match lies within [from, to)
+     */
+    private static int[] inRange(int[] positions, int m, int from, int to) {
+        MatchSet kept = new MatchSet();
+        for (int position : positions) {
+            if (position >= from && position + m <= to) {
+                kept.add(position);
+            }
+        }
+        return kept.toArray();
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Sorted distinct positions in 4 chunks, each filled in a randomly chosen shape
+     */
+    private static int[] generatePositions(Random random) {
+        List<Integer> positions = new ArrayList<>();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int base = chunk << 16;
+            switch (random.nextInt(7)) {
+                case 0: // empty
+                    break;
+                case 1: // sparse
+                    for (int low = random.nextInt(200); low < 1 << 16; low += 1 + random.nextInt(400)) {
+                        positions.add(base + low);
+                    }
+                    break;
+                case 2: // array/bitmap threshold: 4095..4097 values
+                    int count = 4095 + random.nextInt(3);
+                    for (int i = 0; i < count; i++) {
+                        positions.add(base + i * 15);
+                    }
+                    break;
+                case 3: // dense random
+                    for (int low = 0; low < 1 << 16; low++) {
+                        if (random.nextInt(10) < 7) {
+                            positions.add(base + low);
+                        }
+                    }
+                    break;
+                case 4: // runs, the last one may end exactly at the chunk border
+                    for (int low = random.nextInt(100); low < 1 << 16; low += random.nextInt(3000)) {
+                        int end = Math.min(1 << 16, low + 1 + random.nextInt(2000));
+                        for (; low < end; low++) {
+                            positions.add(base + low);
+                        }
+                    }
+                    break;
+                case 5: // full chunk (an empty pattern's matches)
+                    for (int low = 0; low < 1 << 16; low++) {
+                        positions.add(base + low);
+                    }
+                    break;
+                default: // single value at a chunk edge
+                    positions.add(base + (random.nextBoolean() ? 0 : 0xFFFF));
+                    break;
+            }
+        }
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Set of the positions, added in ascending order or shuffled
+     */
+    private static RoaringMatchSet fill(int[] positions, Random random, boolean shuffled) {
+        int[] order = positions.clone();
+        if (shuffled) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+        RoaringMatchSet set = new RoaringMatchSet();
+        for (int position : order) {
+            set.add(position);
+        }
+        return set;
+    }
+
+    private static void compare(Report report, String where, RoaringMatchSet set, int[] expected) {
+        report.check(set.cardinality() == expected.length,
+                where + ": cardinality " + set.cardinality() + ", expected " + expected.length);
+        report.check(Arrays.equals(set.toMatchSet().toArray(), expected), where + ": forEach/toMatchSet differ");
+
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        int i = 0;
+        boolean same = true;
+        while (iterator.hasNext() && i < expected.length) {
+            same &= iterator.nextInt() == expected[i++];
+        }
+        report.check(same && i == expected.length && !iterator.hasNext(), where + ": iterator differs");
+
+        boolean contains = true;
+        for (int k = 0; k < expected.length; k++) {
+            int position = expected[k];
+            contains &= set.contains(position);
+            // Neighbours: members exactly when they are in expected
+            contains &= set.contains(position + 1) == (k + 1 < expected.length && expected[k + 1] == position + 1);
+            contains &= set.contains(position - 1) == (k > 0 && expected[k - 1] == position - 1);
+        }
+        report.check(contains && !set.contains(-1), where + ": contains differs");
+
+        if (expected.length > 0) {
+            int stopAfter = 1 + expected.length / 2;
+            int[] seen = new int[1];
+            boolean completed = set.forEach(position -> ++seen[0] < stopAfter);
+            report.check(!completed && seen[0] == stopAfter, where + ": forEach did not stop after " + stopAfter);
+        }
+    }
+
+    private static void compareSetOperations(Report report, String where, RoaringMatchSet set, int[] expected,
+                                             RoaringMatchSet other, int[] otherExpected) {
+        compare(report, where + " union", set.union(other), union(expected, otherExpected));
+        compare(report, where + " intersection", set.intersection(other), intersection(expected, otherExpected));
+        // Operands are not modified
+        report.check(set.cardinality() == expected.length && other.cardinality() == otherExpected.length,
+                where + ": union/intersection modified an operand");
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next = j == b.length || (i < a.length && a[i] < b[j]) ? a[i++] : b[j++];
+            if (n == 0 || result[n - 1] != next) {
+                result[n++] = next;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int[] intersection(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (b[j] < a[i]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public static void printReport(List<Report> reports) {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("CONSISTENCY CHECKS");
+        System.out.println("=".repeat(70));
+        for (Report report : reports) {
+            System.out.printf("%-28s %8d checks  %s%n", report.name, report.checks,
+                    report.passed() ? "✓ PASS" : "✗ FAIL (" + report.failures + ")");
+            for (String message : report.messages) {
+                System.out.println("    " + message);
+            }
+        }
+        System.out.println("=".repeat(70));
+    }
+}
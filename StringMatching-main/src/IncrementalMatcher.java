@@ -0,0 +1,186 @@
+import java.util.Arrays;
+
+/**
+ * Finds a pattern in text that arrives in pieces, e.g. a log file being tailed
+ *
+ * append() scans only the new chunk and reports only new matches, with
+ * absolute positions counted from the first char ever appended. Matches that
+ * straddle the boundary between chunks are found because the search state
+ * survives between appends:
+ *   - KMP keeps the length of the pattern prefix matched at the end of the text
+ *   - Horspool keeps the last m - 1 chars (the unfinished window) and continues
+ *     over carry + chunk without copying the chunk
+ * Either way an append costs O(chunk length + m), independent of the total
+ * length seen so far. Not thread-safe, append from one thread at a time.
+ */
+public final class IncrementalMatcher {
+
+    private final String pattern;
+    private final boolean horspool;
+    private final int[] lps;
+    private final int[] skip;
+    private long length; // chars appended so far
+
+    // KMP state: number of pattern chars matched at the end of the text
+    private int matched;
+
+    // Horspool state: the last m - 1 chars of the text
+    private final char[] carry;
+    private int carryLength;
+
+    private IncrementalMatcher(String pattern, boolean horspool) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern must not be empty");
+        }
+        this.pattern = pattern;
+        this.horspool = horspool;
+        int m = pattern.length();
+        if (horspool) {
+            this.lps = null;
+            this.skip = new int[256];
+            Arrays.fill(skip, m);
+            for (int i = 0; i < m - 1; i++) {
+                skip[pattern.charAt(i) & 0xFF] = m - 1 - i;
+            }
+            this.carry = new char[m - 1];
+        } else {
+            this.lps = computeLPS(pattern);
+            this.skip = null;
+            this.carry = null;
+        }
+    }
+
+    /**
+     * Matcher keeping the KMP automaton state, O(1) extra state per stream
+     */
+    public static IncrementalMatcher kmp(String pattern) {
+        return new IncrementalMatcher(pattern, false);
+    }
+
+    /**
+     * Matcher keeping the unfinished Horspool window, faster for longer patterns
+     */
+    public static IncrementalMatcher horspool(String pattern) {
+        return new IncrementalMatcher(pattern, true);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Total number of chars appended so far
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Scan a new chunk and report the matches ending in it (ascending absolute positions)
+     * Stopping through the sink drops the rest of this chunk's matches,
+     * the state still covers the whole chunk
+     * @return Number of matches reported
+     */
+    public int append(CharSequence chunk, LongMatchSink sink) {
+        int reported = horspool ? appendHorspool(chunk, sink) : appendKmp(chunk, sink);
+        length += chunk.length();
+        return reported;
+    }
+
+    /**
+     * Forget all appended text
+     */
+    public void reset() {
+        length = 0;
+        matched = 0;
+        carryLength = 0;
+    }
+
+    private int appendKmp(CharSequence chunk, LongMatchSink sink) {
+        int m = pattern.length();
+        int j = matched;
+        int reported = 0;
+        boolean reporting = true;
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            while (j > 0 && c != pattern.charAt(j)) {
+                j = lps[j - 1];
+            }
+            if (c == pattern.charAt(j)) {
+                j++;
+            }
+            if (j == m) {
+                if (reporting) {
+                    reported++;
+                    reporting = sink.accept(length + i - m + 1);
+                }
+                j = lps[m - 1];
+            }
+        }
+        matched = j;
+        return reported;
+    }
+
+    private int appendHorspool(CharSequence chunk, LongMatchSink sink) {
+        int m = pattern.length();
+        int total = carryLength + chunk.length(); // carry + chunk, seen as one text
+        long base = length - carryLength;        // absolute position of index 0
+        char lastPatternChar = pattern.charAt(m - 1);
+        int reported = 0;
+
+        // Every window includes at least one new char, since the carry is shorter than m
+        int i = 0;
+        while (i <= total - m) {
+            char last = charAt(chunk, i + m - 1);
+            if (last == lastPatternChar) {
+                int j = m - 2;
+                while (j >= 0 && charAt(chunk, i + j) == pattern.charAt(j)) {
+                    j--;
+                }
+                if (j < 0) {
+                    reported++;
+                    if (!sink.accept(base + i)) {
+                        break;
+                    }
+                }
+            }
+            i += skip[last & 0xFF];
+        }
+
+        // Keep the last m - 1 chars for the windows that continue into the next chunk
+        int keep = Math.min(m - 1, total);
+        int from = total - keep;
+        if (from < carryLength) {
+            System.arraycopy(carry, from, carry, 0, carryLength - from);
+        }
+        for (int k = Math.max(from, carryLength); k < total; k++) {
+            carry[k - from] = chunk.charAt(k - carryLength);
+        }
+        carryLength = keep;
+        return reported;
+    }
+
+    /**
+     * Char at index of carry + chunk
+     */
+    private char charAt(CharSequence chunk, int index) {
+        return index < carryLength ? carry[index] : chunk.charAt(index - carryLength);
+    }
+
+    private static int[] computeLPS(String pattern) {
+        int m = pattern.length();
+        int[] lps = new int[m];
+        int len = 0;
+        int i = 1;
+        while (i < m) {
+            if (pattern.charAt(i) == pattern.charAt(len)) {
+                lps[i++] = ++len;
+            } else if (len != 0) {
+                len = lps[len - 1];
+            } else {
+                lps[i++] = 0;
+            }
+        }
+        return lps;
+    }
+}
@@ -0,0 +1,537 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON reader over UTF-8 bytes
+ *
+ * Pull-style API (beginObject, nextName, nextString, ...) that reads the input
+ * in fixed-size chunks, so a test case file is never held in memory as a whole.
+ * Strings are decoded directly into a compact buffer: one byte per char while
+ * every char fits in Latin-1 (the usual case for test data), two bytes per char
+ * only once a wider char shows up. All JSON escapes are handled, including
+ * \\uXXXX surrogate pairs.
+ *
+ * Only what the test case files need is supported: objects, arrays, strings,
+ * numbers, true/false/null. Errors are reported as IOException with the byte offset.
+ */
+public class JsonReader implements Closeable {
+
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long bufferStart; // byte offset of buffer[0] in the input
+
+    // Container stack: true = object, false = array
+    private boolean[] stack = new boolean[16];
+    private int depth;
+    // In an object: true when the next token must be a name
+    private boolean expectName;
+    // True after a complete element, the next one must be preceded by ','
+    private boolean needComma;
+
+    private final CompactStringBuilder strings;
+
+    public JsonReader(InputStream in) {
+        this(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param sizeHint Upper bound for the length of any string in the input
+     *                 (e.g. the file size), caps the string buffer growth
+     */
+    public JsonReader(InputStream in, long sizeHint) {
+        this.in = in;
+        this.strings = new CompactStringBuilder((int) Math.min(Integer.MAX_VALUE - 8, Math.max(sizeHint, 16)));
+    }
+
+    /**
+     * Byte offset of the next unread byte
+     */
+    public long position() {
+        return bufferStart + pos;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        consumeSeparator();
+        pos++;
+        push(true);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        pos++;
+        pop();
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        consumeSeparator();
+        pos++;
+        push(false);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        pos++;
+        pop();
+    }
+
+    /**
+     * True if the current object or array has more elements
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        consumeSeparator();
+        String name = readString(Integer.MAX_VALUE);
+        skipWhitespace();
+        if (read() != ':') {
+            throw error("Expected ':' after name");
+        }
+        expectName = false;
+        needComma = false;
+        return name;
+    }
+
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        consumeSeparator();
+        String value = readString(Integer.MAX_VALUE);
+        afterValue();
+        return value;
+    }
+
+    /**
+     * Like nextString, but if the value is longer than maxLength chars it is
+     * skipped without being held in memory and null is returned
+     */
+    public String nextString(int maxLength) throws IOException {
+        expect(Token.STRING);
+        consumeSeparator();
+        String value = readString(maxLength);
+        afterValue();
+        return value;
+    }
+
+    /**
+     * The next number as written, e.g. "12", "-1.5e3", for callers that validate it themselves
+     */
+    public String nextNumber() throws IOException {
+        expect(Token.NUMBER);
+        consumeSeparator();
+        String literal = readLiteral();
+        afterValue();
+        return literal;
+    }
+
+    public long nextLong() throws IOException {
+        String literal = nextNumber();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer but was " + literal);
+        }
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        consumeSeparator();
+        String literal = readLiteral();
+        afterValue();
+        if (literal.equals("true")) {
+            return true;
+        }
+        if (literal.equals("false")) {
+            return false;
+        }
+        throw error("Expected true or false but was " + literal);
+    }
+
+    /**
+     * Skip the next value, including nested objects and arrays
+     */
+    public void skipValue() throws IOException {
+        Token token = peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case STRING:
+                consumeSeparator();
+                skipString();
+                afterValue();
+                break;
+            case NUMBER:
+            case BOOLEAN:
+            case NULL:
+                consumeSeparator();
+                readLiteral();
+                afterValue();
+                break;
+            default:
+                throw error("Unexpected " + token);
+        }
+    }
+
+    /**
+     * Type of the next token without consuming it
+     */
+    public Token peek() throws IOException {
+        skipWhitespace();
+        int c = peekByte();
+        if (depth > 0 && needComma && c != '}' && c != ']') {
+            if (c != ',') {
+                throw error("Expected ',' or end of container");
+            }
+            pos++;
+            needComma = false;
+            skipWhitespace();
+            c = peekByte();
+            if (c == '}' || c == ']') {
+                throw error("Trailing comma");
+            }
+        }
+        if (c == -1) {
+            return Token.END_DOCUMENT;
+        }
+        if (depth > 0 && stack[depth - 1] && expectName && c != '}') {
+            if (c != '"') {
+                throw error("Expected a name");
+            }
+            return Token.NAME;
+        }
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '}': return Token.END_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case ']': return Token.END_ARRAY;
+            case '"': return Token.STRING;
+            case 't':
+            case 'f': return Token.BOOLEAN;
+            case 'n': return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token actual = peek();
+        if (actual != expected) {
+            throw error("Expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Position on the first byte of the next element (peek has consumed the ',')
+     */
+    private void consumeSeparator() throws IOException {
+        skipWhitespace();
+        needComma = false;
+    }
+
+    private void afterValue() {
+        if (depth > 0) {
+            needComma = true;
+            expectName = stack[depth - 1];
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = object;
+        expectName = object;
+        needComma = false;
+    }
+
+    private void pop() {
+        depth--;
+        afterValue();
+    }
+
+    /**
+     * Read a string literal, the opening quote is the next byte
+     * Returns null (and skips the rest) once more than maxLength chars were read
+     */
+    private String readString(int maxLength) throws IOException {
+        read(); // opening quote
+        strings.reset();
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                throw error("Unterminated string");
+            }
+            if (b == '"') {
+                return strings.toString();
+            }
+            if (strings.length() >= maxLength) {
+                if (b == '\\') {
+                    read();
+                }
+                skipStringBody();
+                strings.reset();
+                return null;
+            }
+            if (b == '\\') {
+                strings.append(readEscape());
+            } else if (b < 0x80) {
+                if (b < 0x20) {
+                    throw error("Unescaped control character in string");
+                }
+                strings.append((char) b);
+            } else {
+                appendUtf8(b);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        read(); // opening quote
+        skipStringBody();
+    }
+
+    /**
+     * Skip to just after the closing quote
+     */
+    private void skipStringBody() throws IOException {
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                throw error("Unterminated string");
+            }
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                read();
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:
+                throw error("Invalid escape \\" + (char) c);
+        }
+    }
+
+    /**
+     * Decode a multi-byte UTF-8 sequence whose first byte is lead
+     * Malformed sequences become U+FFFD like new String(bytes, UTF_8) does
+     */
+    private void appendUtf8(int lead) throws IOException {
+        int extra;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            codePoint = lead & 0x07;
+        } else {
+            strings.append('�');
+            return;
+        }
+        for (int i = 0; i < extra; i++) {
+            int b = peekByte();
+            if ((b & 0xC0) != 0x80) {
+                strings.append('�');
+                return;
+            }
+            pos++;
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        if (Character.isBmpCodePoint(codePoint)) {
+            strings.append((char) codePoint);
+        } else if (Character.isValidCodePoint(codePoint)) {
+            strings.append(Character.highSurrogate(codePoint));
+            strings.append(Character.lowSurrogate(codePoint));
+        } else {
+            strings.append('�');
+        }
+    }
+
+    /**
+     * Read a number, true, false or null literal
+     */
+    private String readLiteral() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = peekByte();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            sb.append((char) c);
+            pos++;
+        }
+        String literal = sb.toString();
+        if (literal.isEmpty()) {
+            throw error("Expected a value");
+        }
+        return literal;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            int c = peekByte();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int peekByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at byte " + position());
+    }
+
+    /**
+     * String buffer that stores Latin-1 text with one byte per char
+     * and switches to chars only when needed
+     */
+    static final class CompactStringBuilder {
+        private final int maxCapacity;
+        private byte[] latin1 = new byte[256];
+        private char[] utf16;
+        private int length;
+
+        CompactStringBuilder(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+        }
+
+        void reset() {
+            length = 0;
+            utf16 = null;
+        }
+
+        int length() {
+            return length;
+        }
+
+        void append(char c) {
+            if (utf16 == null) {
+                if (c <= 0xFF) {
+                    if (length == latin1.length) {
+                        latin1 = Arrays.copyOf(latin1, grow(length));
+                    }
+                    latin1[length++] = (byte) c;
+                    return;
+                }
+                inflate();
+            }
+            if (length == utf16.length) {
+                utf16 = Arrays.copyOf(utf16, grow(length));
+            }
+            utf16[length++] = c;
+        }
+
+        private void inflate() {
+            utf16 = new char[Math.max(16, grow(length))];
+            for (int i = 0; i < length; i++) {
+                utf16[i] = (char) (latin1[i] & 0xFF);
+            }
+        }
+
+        private int grow(int length) {
+            long grown = (long) length + (length >> 1) + 16;
+            return (int) Math.max(length + 1, Math.min(grown, maxCapacity));
+        }
+
+        @Override
+        public String toString() {
+            String value = utf16 == null
+                    ? new String(latin1, 0, length, StandardCharsets.ISO_8859_1)
+                    : new String(utf16, 0, length);
+            // Don't keep a huge buffer alive after one big string
+            if (latin1.length > BUFFER_SIZE) {
+                latin1 = new byte[256];
+            }
+            utf16 = null;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * MatchSink for texts whose positions don't fit in an int
+ * (off-heap stores and streams of appended text)
+ */
+public interface LongMatchSink {
+
+    /**
+     * @param position Absolute index in the text where the pattern matches
+     * @return true to continue searching, false to stop
+     */
+    boolean accept(long position);
+}
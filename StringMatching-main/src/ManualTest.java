@@ -14,23 +14,25 @@ import java.util.*;
  *   java ManualTest share              - Run only shared tests (for students)
  *   java ManualTest hidden             - Run only hidden tests (for grading)
  *   java ManualTest preanalysis        - Run with pre-analysis comparison
+ *   java ManualTest baseline save [file]             - Save timings as a performance baseline
+ *   java ManualTest baseline compare [file] [t%] [a%] - Compare against a saved baseline
+ *   java ManualTest scaling [quick]    - Measure empirical complexity exponents
+ *   java ManualTest fuzz [sec] [Alg..] - Search for pathological inputs, save them as test cases
+ *   java ManualTest fuzzcases          - Run the test cases saved by the fuzzer
+ *   java ManualTest export [dir] [html] - Run all tests, write results as JSON/CSV (and HTML)
+ *   java ManualTest tune [grid|random|descent] [evals] [file] - Tune StudentPreAnalysis thresholds
+ *   java ManualTest multibench [quick]       - Multi-pattern engines vs one search per pattern
+ *   java ManualTest qgram [docs] [queries]   - Q-gram index queries vs a full scan per query
+ *   java ManualTest check [name..]           - Differential checks of secondary APIs (roaring, ranges, incremental)
+ *   java ManualTest shadow [rate] [rounds]   - Production-mode selection with shadow regret sampling
+ *   java ManualTest serve [port] [threads] [shadowRate] - Run the local search server (SearchServer)
+ *   java ManualTest loadtest [url] [thr] [sec] [batch] [cache] - Load-test a server (in-process if no url)
  */
 public class ManualTest {
     
     public static void main(String[] args) {
         printHeader();
 
-        // Register algorithms by loading classes
-        try {
-            Class.forName("Naive");
-            Class.forName("KMP");
-            Class.forName("RabinKarp");
-            Class.forName("BoyerMoore");
-            Class.forName("GoCrazy");
-        } catch (ClassNotFoundException e) {
-            System.err.println("Error loading algorithm classes: " + e.getMessage());
-        }
-
         // Load test cases from files
         List<TestCase> sharedTestCases = TestCaseLoader.loadSharedTestCases();
         List<TestCase> hiddenTestCases = TestCaseLoader.loadHiddenTestCases();
@@ -68,6 +70,58 @@ public class ManualTest {
             // Run with pre-analysis comparison
             System.out.println("Running with PRE-ANALYSIS comparison...\n");
             runWithPreAnalysis(allTests);
+        } else if (args[0].equalsIgnoreCase("baseline")) {
+            // Save or compare a performance baseline
+            runBaseline(allTests, args);
+        } else if (args[0].equalsIgnoreCase("scaling")) {
+            // Sweep n and m, fit growth exponents
+            boolean quick = args.length > 1 && args[1].equalsIgnoreCase("quick");
+            System.out.println("Running COMPLEXITY SCALING harness" + (quick ? " (quick)" : "") + "...\n");
+            List<ComplexityScaling.ScalingResult> scaling = ComplexityScaling.run(
+                    AlgorithmRegistry.all(),
+                    ComplexityScaling.defaultFamilies(),
+                    quick ? ComplexityScaling.SweepConfig.quick() : new ComplexityScaling.SweepConfig());
+            ComplexityScaling.printResults(scaling);
+        } else if (args[0].equalsIgnoreCase("fuzz")) {
+            // Cost-guided search for slow inputs
+            runFuzzer(args);
+        } else if (args[0].equalsIgnoreCase("export")) {
+            // Machine-readable results for dashboards
+            runExport(allTests, args);
+        } else if (args[0].equalsIgnoreCase("multibench")) {
+            // Throughput of the multi-pattern engines
+            boolean quick = args.length > 1 && args[1].equalsIgnoreCase("quick");
+            System.out.println("Running MULTI-PATTERN BENCHMARK" + (quick ? " (quick)" : "") + "...\n");
+            MultiPatternBenchmark.Config config = quick ? MultiPatternBenchmark.Config.quick()
+                    : new MultiPatternBenchmark.Config();
+            List<MultiPatternBenchmark.Row> rows = MultiPatternBenchmark.run(
+                    MultiPatternBenchmark.defaultScenarios(config), MultiPatternBenchmark.defaultEngines(), config);
+            MultiPatternBenchmark.printResults(rows, config);
+        } else if (args[0].equalsIgnoreCase("check")) {
+            // Secondary APIs against findMatches
+            runChecks(allTests, args);
+        } else if (args[0].equalsIgnoreCase("qgram")) {
+            // Indexed queries over a growing document set
+            runQGramIndex(args);
+        } else if (args[0].equalsIgnoreCase("tune")) {
+            // Search the StudentPreAnalysis thresholds for this machine
+            runTuner(args);
+        } else if (args[0].equalsIgnoreCase("shadow")) {
+            // Run only the chosen algorithms, sample the alternatives in the background
+            runShadow(allTests, args);
+        } else if (args[0].equalsIgnoreCase("serve")) {
+            // Long-running search service
+            runServer(args);
+        } else if (args[0].equalsIgnoreCase("loadtest")) {
+            // Throughput and tail latency of the search service
+            runLoadTest(args);
+        } else if (args[0].equalsIgnoreCase("fuzzcases")) {
+            // Run the adversarial cases written by the fuzzer
+            List<TestCase> fuzzCases = TestCaseLoader.loadTestCasesFromDirectory(PerformanceFuzzer.DEFAULT_OUTPUT_DIR);
+            System.out.println("Running " + fuzzCases.size() + " FUZZER test case(s)...\n");
+            if (!fuzzCases.isEmpty()) {
+                runWithFullComparison(fuzzCases, getAllIndices(fuzzCases.size()));
+            }
         } else {
             // Parse test indices
             List<Integer> testIndices = parseTestIndices(args, allTests.size());
@@ -96,11 +150,11 @@ public class ManualTest {
         ManualTestRunner.printDetailedResultsTable(results);
 
         // Add PreAnalysis comparison using YOUR implementation
-        System.out.println("\n" + repeat("=", 120));
+        System.out.println("\n" + "=".repeat(120));
         System.out.println("Running PreAnalysis comparison (using YOUR StudentPreAnalysis)...");
-        System.out.println(repeat("=", 120));
+        System.out.println("=".repeat(120));
 
-        PreAnalysis preAnalysis = new StudentPreAnalysis();
+        PreAnalysis preAnalysis = PreAnalysis.student();
         List<PreAnalysisComparison.ComparisonResult> preAnalysisResults =
                 PreAnalysisComparison.runComparison(preAnalysis, testsToRun);
 
@@ -120,7 +174,7 @@ public class ManualTest {
         System.out.println("      Make sure to implement the chooseAlgorithm() method!\n");
 
         // Use StudentPreAnalysis - this is YOUR implementation
-        PreAnalysis preAnalysis = new StudentPreAnalysis();
+        PreAnalysis preAnalysis = PreAnalysis.student();
 
         List<PreAnalysisComparison.ComparisonResult> preAnalysisResults =
                 PreAnalysisComparison.runComparison(preAnalysis, allTests);
@@ -134,40 +188,420 @@ public class ManualTest {
         System.out.println("\n✓ Pre-analysis testing complete!");
     }
     
+    /**
+     * Save a performance baseline, or compare this run against one.
+     * Exits with code 2 if the comparison finds significant regressions.
+     */
+    private static void runBaseline(List<TestCase> allTests, String[] args) {
+        if (args.length < 2 || !(args[1].equalsIgnoreCase("save") || args[1].equalsIgnoreCase("compare"))) {
+            System.out.println("Usage: java ManualTest baseline save [file]");
+            System.out.println("       java ManualTest baseline compare [file] [timeThreshold%] [allocThreshold%]");
+            System.exit(1);
+        }
+        boolean save = args[1].equalsIgnoreCase("save");
+        java.nio.file.Path file = java.nio.file.Paths.get(args.length > 2 ? args[2] : PerformanceBaseline.DEFAULT_FILE);
+
+        PerformanceBaseline.Thresholds thresholds = new PerformanceBaseline.Thresholds();
+        try {
+            if (args.length > 3) {
+                thresholds.timePercent = Double.parseDouble(args[3]);
+            }
+            if (args.length > 4) {
+                thresholds.allocationPercent = Double.parseDouble(args[4]);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("⚠ Invalid threshold: " + e.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println((save ? "Saving" : "Comparing against") + " baseline " + file.toAbsolutePath() + "\n");
+        List<ManualTestRunner.TestExecutionResult> results =
+                ManualTestRunner.runTests(allTests, getAllIndices(allTests.size()));
+        List<PerformanceBaseline.Entry> current = PerformanceBaseline.fromResults(results);
+
+        try {
+            if (save) {
+                PerformanceBaseline.save(current, file);
+                System.out.println("✓ Saved " + current.size() + " entries to " + file);
+                return;
+            }
+            List<PerformanceBaseline.Entry> baseline = PerformanceBaseline.load(file);
+            PerformanceBaseline.Report report = PerformanceBaseline.compare(baseline, current, thresholds);
+            PerformanceBaseline.printReport(report, thresholds);
+            if (report.hasRegressions()) {
+                System.exit(2);
+            }
+        } catch (java.io.IOException | IllegalArgumentException e) {
+            System.err.println("Baseline error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run all tests plus the pre-analysis comparison and export the results:
+     * export [dir] [html]
+     */
+    private static void runExport(List<TestCase> allTests, String[] args) {
+        String dir = BenchmarkExporter.DEFAULT_DIR;
+        boolean html = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("html")) {
+                html = true;
+            } else {
+                dir = args[i];
+            }
+        }
+
+        List<ManualTestRunner.TestExecutionResult> results =
+                ManualTestRunner.runTests(allTests, getAllIndices(allTests.size()));
+        ManualTestRunner.printDetailedResultsTable(results);
+        List<PreAnalysisComparison.ComparisonResult> preAnalysisResults =
+                PreAnalysisComparison.runComparison(PreAnalysis.student(), allTests);
+
+        try {
+            List<java.nio.file.Path> files = BenchmarkExporter.exportAll(
+                    java.nio.file.Paths.get(dir), results, preAnalysisResults, html);
+            System.out.println("\n✓ Exported results:");
+            for (java.nio.file.Path file : files) {
+                System.out.println("  " + file.toAbsolutePath());
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Export error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Tune the StudentPreAnalysis thresholds: tune [grid|random|descent] [maxEvaluations] [file]
+     * Starts from the current thresholds and writes the best ones to the file
+     */
+    private static void runTuner(String[] args) {
+        PreAnalysisTuner.Config config = new PreAnalysisTuner.Config();
+        String file = PreAnalysisThresholds.DEFAULT_FILE;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                config.strategy = PreAnalysisTuner.Strategy.valueOf(args[i].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException notStrategy) {
+                try {
+                    config.maxEvaluations = Integer.parseInt(args[i]);
+                } catch (NumberFormatException notNumber) {
+                    file = args[i];
+                }
+            }
+        }
+        System.out.println("Running PRE-ANALYSIS THRESHOLD TUNER...\n");
+        PreAnalysisThresholds current = PreAnalysisThresholds.loadDefault();
+        PreAnalysisTuner.Result result = PreAnalysisTuner.tune(current, config);
+        PreAnalysisTuner.printReport(result);
+        try {
+            java.nio.file.Path path = java.nio.file.Paths.get(file);
+            PreAnalysisTuner.save(result, config, path);
+            System.out.println("✓ Saved thresholds to " + path.toAbsolutePath()
+                    + " (loaded by StudentPreAnalysis at startup)");
+        } catch (java.io.IOException e) {
+            System.err.println("Error saving thresholds: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Differential checks: check [name...], all of them without names
+     * Exits with status 1 if any check fails
+     */
+    private static void runChecks(List<TestCase> allTests, String[] args) {
+        Set<String> names = new HashSet<>();
+        for (int i = 1; i < args.length; i++) {
+            names.add(args[i].toLowerCase(Locale.ROOT));
+        }
+        System.out.println("Running CONSISTENCY CHECKS...\n");
+        List<ConsistencyCheck.Report> reports = new ArrayList<>();
+        if (names.isEmpty() || names.contains("roaring")) {
+            reports.add(ConsistencyCheck.roaring(allTests, 42));
+        }
+        if (names.isEmpty() || names.contains("ranges")) {
+            reports.add(ConsistencyCheck.ranges(allTests, 42));
+        }
+        if (names.isEmpty() || names.contains("incremental")) {
+            reports.add(ConsistencyCheck.incremental(allTests, 42));
+        }
+        ConsistencyCheck.printReport(reports);
+        for (ConsistencyCheck.Report report : reports) {
+            if (!report.passed()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Q-gram index over generated documents: qgram [documents] [queries]
+     * Half of the documents are indexed, the queries are answered from the index
+     * and by scanning every document with GoCrazy (results must agree), then the
+     * other half is added incrementally and the queries are repeated
+     */
+    private static void runQGramIndex(String[] args) {
+        int documentCount = 2000;
+        int queryCount = 200;
+        try {
+            if (args.length > 1) documentCount = Integer.parseInt(args[1]);
+            if (args.length > 2) queryCount = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: java ManualTest qgram [documents] [queries]");
+            System.exit(1);
+        }
+        System.out.println("Running Q-GRAM INDEX benchmark...\n");
+        Random random = new Random(42);
+        String alphabet = "eeeetttaaoinshrdlucmfwypvbgkqjxz     ";
+        List<String> documents = new ArrayList<>();
+        for (int d = 0; d < documentCount; d++) {
+            char[] chars = new char[1000 + random.nextInt(2000)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            documents.add(new String(chars));
+        }
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < queryCount; i++) {
+            String document = documents.get(random.nextInt(documents.size()));
+            int m = 4 + random.nextInt(12);
+            int start = random.nextInt(document.length() - m + 1);
+            queries.add(document.substring(start, start + m));
+        }
+
+        Solution scanner = AlgorithmRegistry.get("GoCrazy");
+        QGramIndex index = new QGramIndex(scanner);
+        int half = documentCount / 2;
+        for (int round = 0; round < 2; round++) {
+            int from = round == 0 ? 0 : half;
+            int to = round == 0 ? half : documentCount;
+            long start = System.nanoTime();
+            for (int d = from; d < to; d++) {
+                index.addDocument(documents.get(d));
+            }
+            double addMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf(Locale.ROOT, "Added %d documents in %.1f ms: %s%n", to - from, addMillis, index);
+
+            long indexNanos = 0;
+            long scanNanos = 0;
+            int mismatches = 0;
+            long matches = 0;
+            for (String query : queries) {
+                start = System.nanoTime();
+                Map<Integer, MatchSet> indexed = index.search(query);
+                indexNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                Map<Integer, MatchSet> scanned = new TreeMap<>();
+                for (int d = 0; d < to; d++) {
+                    MatchSet set = scanner.findMatches(documents.get(d), query);
+                    if (set.size() > 0) {
+                        scanned.put(d, set);
+                    }
+                }
+                scanNanos += System.nanoTime() - start;
+
+                if (!indexed.toString().equals(scanned.toString())) {
+                    mismatches++;
+                }
+                for (MatchSet set : indexed.values()) {
+                    matches += set.size();
+                }
+            }
+            System.out.printf(Locale.ROOT,
+                    "  %d queries: index %.3f ms/query, scan %.3f ms/query (%.1fx), %d matches%s%n%n",
+                    queries.size(), indexNanos / 1e6 / queries.size(), scanNanos / 1e6 / queries.size(),
+                    indexNanos == 0 ? 0 : (double) scanNanos / indexNanos, matches,
+                    mismatches == 0 ? "" : ", " + mismatches + " MISMATCHES");
+        }
+    }
+
+    /**
+     * Production-mode selection: shadow [sampleRate] [rounds]
+     * Every test runs only the algorithm chosen by StudentPreAnalysis, a sampled
+     * fraction is evaluated against all algorithms on the shadow thread
+     */
+    private static void runShadow(List<TestCase> allTests, String[] args) {
+        double rate = 1.0;
+        int rounds = 20;
+        try {
+            if (args.length > 1) rate = Double.parseDouble(args[1]);
+            if (args.length > 2) rounds = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java ManualTest shadow [sampleRate] [rounds]");
+            System.exit(1);
+        }
+        System.out.println("Running PRODUCTION-MODE selection with shadow evaluation...\n");
+        PreAnalysis preAnalysis = PreAnalysis.student();
+        try (ShadowEvaluator shadow = new ShadowEvaluator(AlgorithmRegistry.all(), rate)) {
+            long inlineNanos = 0;
+            int failures = 0;
+            for (int round = 0; round < rounds; round++) {
+                for (TestCase test : allTests) {
+                    // Decoded before the timed request (a corpus slice is decoded on every getText())
+                    String text = test.getText();
+                    String pattern = test.getPattern();
+                    long start = System.nanoTime();
+                    String chosen = SearchEvents.choose(preAnalysis, text, pattern);
+                    Solution solution = AlgorithmRegistry.find(chosen == null ? SearchServer.DEFAULT_ALGORITHM : chosen);
+                    if (solution == null) {
+                        failures++;
+                        continue;
+                    }
+                    MatchSet result = solution.findMatches(text, pattern);
+                    inlineNanos += System.nanoTime() - start;
+                    if (!MatchVerifier.matches(result, test)) {
+                        failures++;
+                    }
+                    shadow.offer(solution.getName(), text, pattern);
+                }
+            }
+            System.out.printf("Ran %d requests inline in %.2f ms (pre-analysis + chosen algorithm), %d failed%n",
+                    rounds * allTests.size(), inlineNanos / 1e6, failures);
+            if (!shadow.awaitIdle(60000)) {
+                System.out.println("⚠ Shadow evaluation still running, the report is incomplete");
+            }
+            shadow.printReport();
+        } catch (java.io.IOException e) {
+            System.err.println("Error reading expected results: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run the search server until the process is stopped: serve [port] [threads] [shadowRate]
+     */
+    private static void runServer(String[] args) {
+        try {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : SearchServer.DEFAULT_PORT;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            double shadowRate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+            SearchServer server = new SearchServer(PreAnalysis.student(), AlgorithmRegistry.all());
+            if (shadowRate > 0) {
+                server.setShadowEvaluator(new ShadowEvaluator(AlgorithmRegistry.all(), shadowRate));
+            }
+            System.out.println("Warming up algorithms...");
+            server.warmUp(20000);
+            server.start(port, threads);
+            System.out.println("✓ Search server listening on http://127.0.0.1:" + server.getPort()
+                    + " (" + threads + " threads), stop with Ctrl+C");
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java ManualTest serve [port] [threads] [shadowRate]");
+            System.exit(1);
+        } catch (java.io.IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Load-test a search server: loadtest [url] [threads] [seconds] [batchSize] [cache]
+     * Without a url a server is started in this process on a free port; the
+     * result cache is bypassed unless "cache" is given
+     */
+    private static void runLoadTest(String[] args) {
+        SearchLoadGenerator.Config config = new SearchLoadGenerator.Config();
+        String url = null;
+        List<Integer> numbers = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].startsWith("http")) {
+                    url = args[i];
+                } else if (args[i].equalsIgnoreCase("cache")) {
+                    config.useCache = true;
+                } else {
+                    numbers.add(Integer.parseInt(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java ManualTest loadtest [url] [threads] [seconds] [batchSize] [cache]");
+            System.exit(1);
+        }
+        if (numbers.size() > 0) config.threads = numbers.get(0);
+        if (numbers.size() > 1) config.durationSeconds = numbers.get(1);
+        if (numbers.size() > 2) config.batchSize = numbers.get(2);
+
+        SearchServer server = null;
+        try {
+            if (url == null) {
+                server = new SearchServer(PreAnalysis.student(), AlgorithmRegistry.all());
+                server.start(0, Runtime.getRuntime().availableProcessors());
+                url = "http://127.0.0.1:" + server.getPort();
+                System.out.println("Started in-process search server at " + url);
+            }
+            System.out.println("Running LOAD TEST against " + url + "...\n");
+            SearchLoadGenerator.Report report = SearchLoadGenerator.run(url, config);
+            SearchLoadGenerator.printReport(report, config);
+        } catch (java.io.IOException e) {
+            System.err.println("Load test error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Run the performance fuzzer: fuzz [secondsPerAlgorithm] [Algorithm ...]
+     * Defaults to GoCrazy, BoyerMoore and RabinKarp for 10 seconds each
+     */
+    private static void runFuzzer(String[] args) {
+        PerformanceFuzzer.Config config = new PerformanceFuzzer.Config();
+        List<String> algorithms = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            try {
+                config.budgetMillisPerAlgorithm = (long) (Double.parseDouble(args[i]) * 1000);
+            } catch (NumberFormatException e) {
+                algorithms.add(args[i]);
+            }
+        }
+        if (algorithms.isEmpty()) {
+            algorithms.addAll(Arrays.asList("GoCrazy", "BoyerMoore", "RabinKarp"));
+        }
+        System.out.println("Running PERFORMANCE FUZZER...\n");
+        PerformanceFuzzer.run(algorithms, config,
+                TestCaseLoader.resolveDirectory(PerformanceFuzzer.DEFAULT_OUTPUT_DIR));
+    }
+
     /**
      * List all available tests
      */
     private static void listAllTests(List<TestCase> allTests, List<Integer> sharedTests, List<Integer> hiddenTests) {
         System.out.println("AVAILABLE TEST CASES:");
-        System.out.println(repeat("=", 100));
+        System.out.println("=".repeat(100));
         System.out.println();
         
         System.out.println("📚 SHARED TESTS (for students):");
-        System.out.println(repeat("-", 100));
+        System.out.println("-".repeat(100));
         for (int i : sharedTests) {
             TestCase test = allTests.get(i);
             System.out.printf("[%2d] %-30s | Text length: %4d | Pattern length: %2d\n",
-                i, test.getName(), test.getText().length(), test.getPattern().length());
-            System.out.printf("     Text: \"%s\"\n", truncate(test.getText(), 70));
-            System.out.printf("     Pattern: \"%s\"\n", test.getPattern());
+                i, test.getName(), test.getTextLength(), test.getPatternLength());
+            System.out.printf("     Text: \"%s\"\n", truncate(test.getTextPreview(71), 70));
+            System.out.printf("     Pattern: \"%s\"\n", truncate(test.getPatternPreview(201), 200));
             System.out.printf("     Expected: %s\n", test.getExpectedResult().isEmpty() ? "(no match)" : test.getExpectedResult());
             System.out.println();
         }
         
         System.out.println("\n🔒 HIDDEN TESTS (for instructor grading only):");
-        System.out.println(repeat("-", 100));
+        System.out.println("-".repeat(100));
         for (int i : hiddenTests) {
             TestCase test = allTests.get(i);
             System.out.printf("[%2d] %-30s | Text length: %4d | Pattern length: %2d\n",
-                i, test.getName(), test.getText().length(), test.getPattern().length());
-            System.out.printf("     Text: \"%s\"\n", truncate(test.getText(), 70));
-            System.out.printf("     Pattern: \"%s\"\n", test.getPattern());
+                i, test.getName(), test.getTextLength(), test.getPatternLength());
+            System.out.printf("     Text: \"%s\"\n", truncate(test.getTextPreview(71), 70));
+            System.out.printf("     Pattern: \"%s\"\n", truncate(test.getPatternPreview(201), 200));
             System.out.printf("     Expected: %s\n", test.getExpectedResult().isEmpty() ? "(no match)" : test.getExpectedResult());
             System.out.println();
         }
         
-        System.out.println(repeat("=", 100));
-        System.out.println("\nUSAGE EXAMPLES:");
+        System.out.println("=".repeat(100));
+        System.out.println();
+        TestCaseLoader.printLoadTimes();
+        System.out.println("USAGE EXAMPLES:");
         System.out.println("  java ManualTest              - Run all tests with full comparison tables");
         System.out.println("  java ManualTest 0 1 2        - Run specific tests (0, 1, and 2)");
         System.out.println("  java ManualTest 0-5          - Run tests 0 through 5");
@@ -175,6 +609,19 @@ public class ManualTest {
         System.out.println("  java ManualTest hidden       - Run only hidden tests (for grading)");
         System.out.println("  java ManualTest preanalysis  - Run with pre-analysis comparison");
         System.out.println("  java ManualTest list         - Show this list");
+        System.out.println("  java ManualTest baseline save [file]    - Save a performance baseline");
+        System.out.println("  java ManualTest baseline compare [file] - Compare with a saved baseline");
+        System.out.println("  java ManualTest scaling [quick]         - Measure empirical complexity exponents");
+        System.out.println("  java ManualTest fuzz [sec] [Alg...]     - Search for pathological inputs");
+        System.out.println("  java ManualTest fuzzcases               - Run the cases saved by the fuzzer");
+        System.out.println("  java ManualTest export [dir] [html]     - Write results as JSON/CSV (and HTML)");
+        System.out.println("  java ManualTest tune [grid|random|descent] [evals] [file] - Tune pre-analysis thresholds");
+        System.out.println("  java ManualTest multibench [quick]      - Multi-pattern engines vs one search per pattern");
+        System.out.println("  java ManualTest qgram [docs] [queries]  - Q-gram index queries vs a full scan per query");
+        System.out.println("  java ManualTest check [name...]         - Differential checks of secondary APIs (roaring, ranges, incremental)");
+        System.out.println("  java ManualTest shadow [rate] [rounds]  - Production-mode selection, sampled regret");
+        System.out.println("  java ManualTest serve [port] [threads] [shadowRate] - Run the local search server");
+        System.out.println("  java ManualTest loadtest [url] [thr] [sec] [batch] [cache] - Load-test the search server");
     }
     
     /**
@@ -238,25 +685,15 @@ public class ManualTest {
      * Print header
      */
     private static void printHeader() {
-        System.out.println("╔" + repeat("═", 98) + "╗");
+        System.out.println("╔" + "═".repeat(98) + "╗");
         System.out.println("║" + center("MANUAL TEST RUNNER - String Matching Algorithms", 98) + "║");
-        System.out.println("╚" + repeat("═", 98) + "╝");
+        System.out.println("╚" + "═".repeat(98) + "╝");
         System.out.println();
     }
     
     private static String center(String text, int width) {
-        int padding = (width - text.length()) / 2;
-        return repeat(" ", padding) + text + repeat(" ", width - text.length() - padding);
-    }
-    
-    // Java 8 compatible repeat helper
-    private static String repeat(String str, int count) {
-        if (count <= 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(str);
-        }
-        return sb.toString();
+        int padding = Math.max(0, width - text.length()) / 2;
+        return " ".repeat(padding) + text + " ".repeat(Math.max(0, width - text.length() - padding));
     }
 }
 
@@ -10,9 +10,10 @@ public class ManualTestRunner {
      */
     static class AlgorithmTestResult {
         String algorithmName;
-        String result;
+        MatchSet result;
         long executionTimeNanos;
         long[] allRunTimes; // Store all 5 run times
+        long allocatedBytes = -1; // Average bytes allocated per run, -1 if the JVM can't measure it
         boolean passed;
         boolean implemented;
         Exception error;
@@ -22,6 +23,18 @@ public class ManualTestRunner {
             this.implemented = true;
             this.allRunTimes = new long[5];
         }
+
+        /**
+         * PASS, FAIL, ERROR or N/A
+         */
+        String status() {
+            if (!implemented) {
+                return "N/A";
+            } else if (error != null) {
+                return "ERROR";
+            }
+            return passed ? "PASS" : "FAIL";
+        }
     }
     
     /**
@@ -38,19 +51,19 @@ public class ManualTestRunner {
     }
     
     /**
-     * Get all registered algorithm solutions
+     * Bytes allocated so far by the current thread, or -1 if not supported
+     * (com.sun.management.ThreadMXBean is HotSpot/OpenJ9 specific)
      */
-    private static List<Solution> getAllSolutions() {
-        List<Solution> solutions = new ArrayList<>();
-        try {
-            for (Class<? extends Solution> algorithmClass : Solution.SUBCLASSES) {
-                Solution instance = algorithmClass.getDeclaredConstructor().newInstance();
-                solutions.add(instance);
+    @SuppressWarnings("deprecation") // Thread.getId(), threadId() needs Java 19
+    private static long currentThreadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
             }
-        } catch (Exception e) {
-            System.err.println("Error creating algorithm instances: " + e.getMessage());
         }
-        return solutions;
+        return -1;
     }
 
     /**
@@ -58,7 +71,7 @@ public class ManualTestRunner {
      */
     public static List<TestExecutionResult> runTests(List<TestCase> allTests, List<Integer> testIndices) {
         List<TestExecutionResult> results = new ArrayList<>();
-        List<Solution> algorithms = getAllSolutions();
+        List<Solution> algorithms = AlgorithmRegistry.all();
         
         System.out.println("Running " + testIndices.size() + " test(s) with " + algorithms.size() + " algorithm(s)...\n");
         
@@ -70,6 +83,9 @@ public class ManualTestRunner {
             
             TestCase test = allTests.get(testIndex);
             TestExecutionResult testResult = new TestExecutionResult(test);
+            // Decoded once, outside the timed runs (a corpus slice is decoded on every getText())
+            String text = test.getText();
+            String pattern = test.getPattern();
             
             // Run each algorithm on this test
             for (Solution algorithm : algorithms) {
@@ -77,22 +93,27 @@ public class ManualTestRunner {
 
                 try {
                     // Warm up
-                    algorithm.Solve(test.getText(), test.getPattern());
+                    SearchEvents.findMatches(algorithm, text, pattern);
 
                     // Run 5 times and take average
                     long totalTime = 0;
-                    String result = null;
+                    MatchSet result = null;
+                    long allocatedBefore = currentThreadAllocatedBytes();
                     for (int run = 0; run < 5; run++) {
                         long startTime = System.nanoTime();
-                        result = algorithm.Solve(test.getText(), test.getPattern());
+                        result = SearchEvents.findMatches(algorithm, text, pattern);
                         long endTime = System.nanoTime();
                         algResult.allRunTimes[run] = endTime - startTime;
                         totalTime += algResult.allRunTimes[run];
                     }
+                    long allocatedAfter = currentThreadAllocatedBytes();
+                    if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                        algResult.allocatedBytes = (allocatedAfter - allocatedBefore) / 5;
+                    }
 
                     algResult.result = result;
                     algResult.executionTimeNanos = totalTime / 5; // Average time
-                    algResult.passed = result.equals(test.getExpectedResult());
+                    algResult.passed = MatchVerifier.matches(result, test);
 
                 } catch (UnsupportedOperationException e) {
                     algResult.implemented = false;
@@ -316,7 +337,7 @@ public class ManualTestRunner {
 
         // Add padding for the difference
         int padding = n - visibleLength;
-        return s + repeat(" ", padding);
+        return s + " ".repeat(padding);
     }
 
     private static String truncate(String s, int maxLength) {
@@ -325,15 +346,5 @@ public class ManualTestRunner {
         }
         return s.substring(0, maxLength - 2) + "..";
     }
-    
-    // Java 8 compatible repeat helper
-    private static String repeat(String str, int count) {
-        if (count <= 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(str);
-        }
-        return sb.toString();
-    }
 }
 
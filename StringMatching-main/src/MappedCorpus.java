@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A UTF-8 text file that test cases reference instead of embedding the text
+ *
+ * The file is memory-mapped the first time a test case needs it, and one
+ * mapping is shared by every test case that refers to the same file.
+ * Slices are decoded on every call and not retained: the bytes stay off-heap
+ * in the page cache, and the decoded String lives only as long as the search
+ * using it. Callers that want no heap copy at all search bytes() with Utf8Search.
+ *
+ * MappedByteBuffer uses int offsets, so a single corpus file is limited to 2 GB.
+ */
+public final class MappedCorpus {
+
+    private static final Map<Path, MappedCorpus> OPEN = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final MappedByteBuffer bytes;
+
+    private MappedCorpus(Path file, MappedByteBuffer bytes) {
+        this.file = file;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Shared mapping of a file, mapped on the first call for that file
+     */
+    public static MappedCorpus open(Path file) throws IOException {
+        Path key = file.toRealPath();
+        MappedCorpus corpus = OPEN.get(key);
+        if (corpus != null) {
+            return corpus;
+        }
+        synchronized (OPEN) {
+            corpus = OPEN.get(key);
+            if (corpus == null) {
+                try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    if (size > Integer.MAX_VALUE) {
+                        throw new IOException("Corpus file larger than 2 GB is not supported: " + key);
+                    }
+                    // The mapping stays valid after the channel is closed
+                    corpus = new MappedCorpus(key, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                }
+                OPEN.put(key, corpus);
+            }
+        }
+        return corpus;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long size() {
+        return bytes.capacity();
+    }
+
+    /**
+     * The whole mapping as a read-only buffer with its own position,
+     * e.g. for searching the raw bytes with Utf8Search
+     */
+    public ByteBuffer bytes() {
+        return bytes.asReadOnlyBuffer();
+    }
+
+    /**
+     * Decode bytes [offset, offset + length) as UTF-8, a new String per call
+     * length -1 means "until the end of the file"
+     */
+    public String decode(long offset, long length) throws IOException {
+        ByteBuffer slice = slice(offset, length);
+        return isAscii(slice) ? decodeAscii(slice, slice.remaining()) : decodeUtf8(slice);
+    }
+
+    /**
+     * Length in chars of decode(offset, length), counted on the bytes without decoding
+     * Exact for valid UTF-8, a malformed sequence may decode to a different count
+     */
+    public int charLength(long offset, long length) throws IOException {
+        ByteBuffer slice = slice(offset, length);
+        int chars = 0;
+        for (int i = slice.position(); i < slice.limit(); i++) {
+            byte b = slice.get(i);
+            if ((b & 0xC0) != 0x80) {
+                chars += (b & 0xF8) == 0xF0 ? 2 : 1; // 4-byte sequences are a surrogate pair
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * The first maxChars chars of decode(offset, length), decoding at most 3 bytes per char
+     * (plus one 4-byte sequence, whose surrogate pair may be split at maxChars)
+     */
+    public String decodePrefix(long offset, long length, int maxChars) throws IOException {
+        ByteBuffer slice = slice(offset, length);
+        long bytesNeeded = (long) maxChars * 3 + 4;
+        if (bytesNeeded < slice.remaining()) {
+            // Cut before a continuation byte, so no sequence is split
+            int end = slice.position() + (int) bytesNeeded;
+            while (end > slice.position() && (slice.get(end) & 0xC0) == 0x80) {
+                end--;
+            }
+            slice.limit(end);
+        }
+        String prefix = isAscii(slice) ? decodeAscii(slice, slice.remaining()) : decodeUtf8(slice);
+        return prefix.length() > maxChars ? prefix.substring(0, maxChars) : prefix;
+    }
+
+    private ByteBuffer slice(long offset, long length) throws IOException {
+        long end = length < 0 ? size() : offset + length;
+        if (offset < 0 || offset > size() || end > size() || end < offset) {
+            throw new IOException("Byte range [" + offset + ", " + end + ") is outside " + file
+                    + " (" + size() + " bytes)");
+        }
+        ByteBuffer slice = bytes.duplicate();
+        slice.position((int) offset).limit((int) end);
+        return slice;
+    }
+
+    private static boolean isAscii(ByteBuffer slice) {
+        for (int i = slice.position(); i < slice.limit(); i++) {
+            if (slice.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ASCII fast path: one copy into a byte[], the String stores it compactly (1 byte per char)
+     */
+    private static String decodeAscii(ByteBuffer slice, int count) {
+        byte[] copy = new byte[count];
+        slice.get(copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String decodeUtf8(ByteBuffer slice) throws CharacterCodingException {
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(slice);
+        return chars.toString();
+    }
+
+    /**
+     * A byte range of a corpus file, the file is not touched until load()
+     */
+    public static final class Slice {
+        private final Path file;
+        private final long offset;
+        private final long length;
+
+        /**
+         * @param length Number of bytes, -1 for "until the end of the file"
+         */
+        public Slice(Path file, long offset, long length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public String load() {
+            try {
+                return open(file).decode(offset, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load corpus " + this + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Length of load() in chars, without decoding
+         */
+        public int charLength() {
+            try {
+                return open(file).charLength(offset, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load corpus " + this + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * The first maxChars chars of load(), decoding only those
+         */
+        public String preview(int maxChars) {
+            try {
+                return open(file).decodePrefix(offset, length, maxChars);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load corpus " + this + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return file + (offset != 0 || length >= 0 ? "[" + offset + "+" + (length < 0 ? "*" : length) + "]" : "");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+/**
+ * Match positions of one search, stored as a growable int[]
+ *
+ * Positions are added in ascending order by the algorithms. Compared to a
+ * List<Integer> (an Integer object plus a reference per match) or the
+ * comma-joined Solve output (up to 11 chars per match) this keeps 4 bytes
+ * per match, and toString() produces exactly the Solve format.
+ */
+public final class MatchSet implements MatchSink {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] positions;
+    private int size;
+
+    public MatchSet() {
+        positions = EMPTY;
+    }
+
+    public MatchSet(int initialCapacity) {
+        positions = initialCapacity > 0 ? new int[initialCapacity] : EMPTY;
+    }
+
+    /**
+     * Parse a comma-separated list of indices (the Solve format)
+     */
+    public static MatchSet parse(CharSequence indices) {
+        MatchSet set = new MatchSet();
+        int length = indices.length();
+        int i = 0;
+        while (i < length) {
+            int end = i;
+            while (end < length && indices.charAt(end) != ',') {
+                end++;
+            }
+            set.add(Integer.parseInt(indices.subSequence(i, end).toString().trim()));
+            i = end + 1;
+        }
+        return set;
+    }
+
+    @Override
+    public boolean accept(int position) {
+        add(position);
+        return true;
+    }
+
+    public void add(int position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(16, size + (size >> 1)));
+        }
+        positions[size++] = position;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return positions[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(positions, size);
+    }
+
+    /**
+     * Comma-separated indices, the same format Solve returns
+     */
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(size * 4);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(positions[i]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MatchSet)) {
+            return false;
+        }
+        MatchSet other = (MatchSet) o;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (positions[i] != other.positions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + positions[i];
+        }
+        return hash;
+    }
+}
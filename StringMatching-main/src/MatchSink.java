@@ -0,0 +1,14 @@
+/**
+ * Receives match positions from a search as they are found
+ *
+ * Algorithms report positions in ascending order. Returning false stops the
+ * search early, for callers that don't need every match.
+ */
+public interface MatchSink {
+
+    /**
+     * @param position Index in the text where the pattern matches
+     * @return true to continue searching, false to stop
+     */
+    boolean accept(int position);
+}
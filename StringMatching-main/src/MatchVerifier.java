@@ -0,0 +1,127 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks a MatchSet against the expected comma-separated indices
+ *
+ * The expected list is read one number at a time, either from the inline
+ * string or straight from the test case file, so checking a result needs
+ * O(1) extra memory instead of building and comparing two full Strings.
+ * The comparison is as strict as String.equals on the Solve format:
+ * no spaces, no leading zeros, no trailing comma.
+ */
+public final class MatchVerifier {
+
+    private MatchVerifier() {
+    }
+
+    /**
+     * True if actual equals the test case's expected result
+     */
+    public static boolean matches(MatchSet actual, TestCase testCase) throws IOException {
+        if (testCase.getExpectedFile() != null) {
+            return matches(actual, testCase.getExpectedFile(), testCase.getExpectedOffset());
+        }
+        return matches(actual, testCase.getExpectedResult());
+    }
+
+    /**
+     * Compare against an in-memory comma-separated list
+     */
+    public static boolean matches(MatchSet actual, CharSequence expected) {
+        int length = expected.length();
+        int pos = 0;
+        int index = 0;
+        while (pos < length) {
+            if (index > 0) {
+                if (expected.charAt(pos) != ',') {
+                    return false;
+                }
+                pos++;
+            }
+            int start = pos;
+            long value = 0;
+            while (pos < length && pos - start <= 10) {
+                char c = expected.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            if (!validNumber(start < length ? expected.charAt(start) : -1, pos - start, value)
+                    || index >= actual.size() || actual.get(index) != value) {
+                return false;
+            }
+            index++;
+        }
+        return index == actual.size();
+    }
+
+    /**
+     * Compare against the JSON string value that starts at byte offset of file
+     * (offset may point at whitespace before the opening quote)
+     */
+    public static boolean matches(MatchSet actual, Path file, long offset) throws IOException {
+        try (InputStream in = openAt(file, offset)) {
+            int c = in.read();
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                c = in.read();
+            }
+            if (c != '"') {
+                throw new IOException("Expected a string at byte " + offset + " of " + file);
+            }
+
+            c = in.read();
+            int index = 0;
+            while (c != '"') {
+                if (index > 0) {
+                    if (c != ',') {
+                        return false;
+                    }
+                    c = in.read();
+                }
+                int first = c;
+                int digits = 0;
+                long value = 0;
+                while (c >= '0' && c <= '9' && digits <= 10) {
+                    value = value * 10 + (c - '0');
+                    digits++;
+                    c = in.read();
+                }
+                if (c == -1) {
+                    throw new IOException("Unterminated expected result in " + file);
+                }
+                if (!validNumber(first, digits, value) || index >= actual.size() || actual.get(index) != value) {
+                    return false;
+                }
+                index++;
+            }
+            return index == actual.size();
+        }
+    }
+
+    private static boolean validNumber(int first, int digits, long value) {
+        return digits > 0 && digits <= 10 && value <= Integer.MAX_VALUE && (first != '0' || digits == 1);
+    }
+
+    /**
+     * Buffered stream positioned at byte offset of file
+     */
+    static InputStream openAt(Path file, long offset) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        long remaining = offset;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                in.close();
+                throw new IOException("Offset " + offset + " is past the end of " + file);
+            }
+            remaining -= skipped;
+        }
+        return in;
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Receives the matches of a MultiPatternMatcher as they are found
+ */
+public interface MultiMatchSink {
+
+    /**
+     * @param patternIndex Index of the matching pattern in the matcher's pattern list
+     * @param position Index in the text where it matches
+     * @return true to continue searching, false to stop
+     */
+    boolean accept(int patternIndex, int position);
+}
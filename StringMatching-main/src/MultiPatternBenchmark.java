@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Throughput of the multi-pattern engines against searching once per pattern
+ *
+ * Each scenario is a generated text plus pattern sets of growing size, about
+ * half cut from the text and half random (mostly absent). Every engine counts
+ * all matches of the set, the counts must agree with the baseline. Build time
+ * (tables) and search time are reported separately; search time is the
+ * fastest of up to REPEATS runs, fewer when a run is slower than SLOW_RUN_MILLIS.
+ * Engines that scan once per pattern are timed on the first PER_PATTERN_SAMPLE
+ * patterns of larger sets and scaled up, their counts are not checked then.
+ * The closing summary names the fastest engine per set size, which is where
+ * the crossovers (per-pattern loop, Wu-Manber, Aho-Corasick) show.
+ */
+public final class MultiPatternBenchmark {
+
+    static final int REPEATS = 5;
+    static final long SLOW_RUN_MILLIS = 1000;
+    static final int PER_PATTERN_SAMPLE = 1000;
+
+    /**
+     * A named way to build a matcher for a pattern set
+     */
+    static final class Engine {
+        final String name;
+        final Function<List<String>, MultiPatternMatcher> factory;
+        final boolean perPattern; // cost grows linearly with the set, may be sampled
+
+        Engine(String name, Function<List<String>, MultiPatternMatcher> factory) {
+            this(name, factory, false);
+        }
+
+        Engine(String name, Function<List<String>, MultiPatternMatcher> factory, boolean perPattern) {
+            this.name = name;
+            this.factory = factory;
+            this.perPattern = perPattern;
+        }
+    }
+
+    /**
+     * A text and the alphabet/lengths its pattern sets are drawn from
+     */
+    static final class Scenario {
+        final String name;
+        final String text;
+        final String alphabet;
+        final int minLength;
+        final int maxLength;
+
+        Scenario(String name, String text, String alphabet, int minLength, int maxLength) {
+            this.name = name;
+            this.text = text;
+            this.alphabet = alphabet;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+    }
+
+    public static class Config {
+        public int textLength = 1 << 20;
+        public int[] setSizes = {1, 10, 100, 1000, 10000, 50000};
+        public long seed = 42;
+
+        static Config quick() {
+            Config config = new Config();
+            config.textLength = 1 << 16;
+            config.setSizes = new int[]{1, 10, 100, 1000};
+            return config;
+        }
+    }
+
+    public static class Row {
+        String scenario;
+        int patterns;
+        String engine;
+        double buildMillis;
+        double searchMillis;
+        long matches;
+        boolean agrees;
+        boolean estimated; // timed on a sample of the set and scaled
+
+        double megabytesPerSecond(int textLength) {
+            return searchMillis == 0 ? 0 : textLength / 1e6 / (searchMillis / 1000);
+        }
+    }
+
+    private MultiPatternBenchmark() {
+    }
+
+    /**
+     * Runs the pattern set through a single-pattern algorithm, one full scan per pattern
+     */
+    static final class PerPattern implements MultiPatternMatcher {
+        private final Solution solution;
+        private final List<String> patterns;
+
+        PerPattern(Solution solution, List<String> patterns) {
+            this.solution = solution;
+            this.patterns = patterns;
+        }
+
+        @Override
+        public List<String> patterns() {
+            return patterns;
+        }
+
+        /**
+         * Pattern by pattern, so positions ascend per pattern only
+         */
+        @Override
+        public void search(CharSequence text, int from, int to, MultiMatchSink sink) {
+            for (int p = 0; p < patterns.size(); p++) {
+                int index = p;
+                boolean[] stopped = new boolean[1];
+                solution.search(text, patterns.get(p), from, to, position -> {
+                    stopped[0] = !sink.accept(index, position);
+                    return !stopped[0];
+                });
+                if (stopped[0]) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public String getName() {
+            return solution.getName() + " per pattern";
+        }
+    }
+
+    static List<Engine> defaultEngines() {
+        List<Engine> engines = new ArrayList<>();
+        engines.add(new Engine("RabinKarp per pattern",
+                patterns -> new PerPattern(AlgorithmRegistry.get("RabinKarp"), patterns), true));
+        engines.add(new Engine("GoCrazy per pattern",
+                patterns -> new PerPattern(AlgorithmRegistry.get("GoCrazy"), patterns), true));
+        engines.add(new Engine("MultiPatternRabinKarp", MultiPatternRabinKarp::new));
+        engines.add(new Engine("WuManber", WuManber::new));
+        engines.add(new Engine("AhoCorasick", AhoCorasick::new));
+        return engines;
+    }
+
+    static List<Scenario> defaultScenarios(Config config) {
+        Random random = new Random(config.seed);
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("k-mers (DNA, m=12)",
+                randomText(random, "ACGT", config.textLength), "ACGT", 12, 12));
+        String idAlphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        StringBuilder ids = new StringBuilder(config.textLength);
+        while (ids.length() < config.textLength) {
+            ids.append(randomText(random, idAlphabet, 8)).append(' ');
+        }
+        scenarios.add(new Scenario("fixed-width IDs (m=8)",
+                ids.substring(0, config.textLength), idAlphabet, 8, 8));
+        String words = "eeeetttaaoinshrdlucmfwypvbgkqjxz     ";
+        scenarios.add(new Scenario("mixed lengths (m=4..16)",
+                randomText(random, words, config.textLength), words.trim(), 4, 16));
+        return scenarios;
+    }
+
+    public static List<Row> run(List<Scenario> scenarios, List<Engine> engines, Config config) {
+        Random random = new Random(config.seed + 1);
+        List<Row> rows = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            for (int size : config.setSizes) {
+                List<String> patterns = patternSet(random, scenario, size);
+                long expected = -1;
+                for (Engine engine : engines) {
+                    Row row = measure(scenario, patterns, engine);
+                    if (expected < 0 && !row.estimated) {
+                        expected = row.matches; // the first engine run on the whole set is the reference
+                    }
+                    row.agrees = row.estimated || row.matches == expected;
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Row measure(Scenario scenario, List<String> patterns, Engine engine) {
+        Row row = new Row();
+        row.scenario = scenario.name;
+        row.patterns = patterns.size();
+        row.engine = engine.name;
+        double scale = 1;
+        if (engine.perPattern && patterns.size() > PER_PATTERN_SAMPLE) {
+            scale = (double) patterns.size() / PER_PATTERN_SAMPLE;
+            patterns = patterns.subList(0, PER_PATTERN_SAMPLE);
+            row.estimated = true;
+        }
+
+        long start = System.nanoTime();
+        MultiPatternMatcher matcher = engine.factory.apply(patterns);
+        row.buildMillis = (System.nanoTime() - start) / 1e6 * scale;
+
+        // Warm-up run, also the match count
+        row.matches = matcher.count(scenario.text);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPEATS; i++) {
+            start = System.nanoTime();
+            matcher.count(scenario.text);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            if (elapsed > SLOW_RUN_MILLIS * 1_000_000) {
+                break;
+            }
+        }
+        row.searchMillis = best / 1e6 * scale;
+        return row;
+    }
+
+    /**
+     * Half cut from the text (present), half random over the alphabet (mostly absent)
+     */
+    static List<String> patternSet(Random random, Scenario scenario, int size) {
+        List<String> patterns = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int m = scenario.minLength + random.nextInt(scenario.maxLength - scenario.minLength + 1);
+            if (i % 2 == 0) {
+                int start = random.nextInt(scenario.text.length() - m + 1);
+                patterns.add(scenario.text.substring(start, start + m));
+            } else {
+                patterns.add(randomText(random, scenario.alphabet, m));
+            }
+        }
+        return patterns;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    public static void printResults(List<Row> rows, Config config) {
+        System.out.println("\n" + "=".repeat(118));
+        System.out.println("MULTI-PATTERN BENCHMARK (text length " + config.textLength + ")");
+        System.out.println("=".repeat(118));
+        System.out.printf("%-24s | %8s | %-24s | %10s | %11s | %9s | %8s | %10s%n",
+                "Scenario", "Patterns", "Engine", "Build ms", "Search ms", "MB/s", "Speedup", "Matches");
+        System.out.println("-".repeat(118));
+        double baseline = 0;
+        String scenario = null;
+        int size = -1;
+        for (Row row : rows) {
+            if (!row.scenario.equals(scenario) || row.patterns != size) {
+                if (scenario != null && !row.scenario.equals(scenario)) {
+                    System.out.println("-".repeat(118));
+                }
+                scenario = row.scenario;
+                size = row.patterns;
+                baseline = row.buildMillis + row.searchMillis;
+            }
+            double total = row.buildMillis + row.searchMillis;
+            System.out.printf(Locale.ROOT, "%-24s | %8d | %-24s | %10.2f | %11.2f | %9.1f | %7.1fx | %10s%s%n",
+                    row.scenario, row.patterns, row.engine, row.buildMillis, row.searchMillis,
+                    row.megabytesPerSecond(config.textLength), total == 0 ? 0 : baseline / total,
+                    row.estimated ? "~" : String.valueOf(row.matches), row.agrees ? "" : "  MISMATCH");
+        }
+        System.out.println("=".repeat(118));
+        System.out.println("Speedup: (build + search) of the first engine divided by this engine's, per pattern set.");
+        System.out.println("~: timed on the first " + PER_PATTERN_SAMPLE + " patterns and scaled to the set size.");
+        printCrossover(rows);
+    }
+
+    /**
+     * Fastest engine (build + search) per scenario and set size
+     */
+    private static void printCrossover(List<Row> rows) {
+        System.out.println("\nFastest engine per set size:");
+        String scenario = null;
+        int size = -1;
+        Row best = null;
+        StringBuilder line = new StringBuilder();
+        for (Row row : rows) {
+            if (!row.scenario.equals(scenario) || row.patterns != size) {
+                if (best != null) {
+                    line.append(String.format(Locale.ROOT, "  %d: %s", size, best.engine));
+                }
+                if (!row.scenario.equals(scenario)) {
+                    if (scenario != null) {
+                        System.out.println(line);
+                    }
+                    line.setLength(0);
+                    line.append(String.format("%-24s", row.scenario));
+                }
+                scenario = row.scenario;
+                size = row.patterns;
+                best = null;
+            }
+            if (best == null || row.buildMillis + row.searchMillis < best.buildMillis + best.searchMillis) {
+                best = row;
+            }
+        }
+        if (best != null) {
+            line.append(String.format(Locale.ROOT, "  %d: %s", size, best.engine));
+            System.out.println(line);
+        }
+    }
+}
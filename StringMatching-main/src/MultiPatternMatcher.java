@@ -0,0 +1,61 @@
+import java.util.List;
+
+/**
+ * Searches a text for a whole set of patterns in one pass
+ *
+ * The set is fixed when the matcher is built, the tables are built once and
+ * the matcher can then search any number of texts, from any thread.
+ * Matches are reported in ascending position order unless the engine says
+ * otherwise (AhoCorasick orders by end position). Patterns matching at the
+ * same position are reported in an order defined by the engine. Duplicate
+ * patterns are each reported under their own index.
+ */
+public interface MultiPatternMatcher {
+
+    /**
+     * The patterns, in the order of the indices reported to sinks
+     */
+    List<String> patterns();
+
+    /**
+     * Report matches lying entirely within text[from, to), stopping when sink returns false
+     * Positions stay absolute (indices into text, not into the range)
+     * @throws IndexOutOfBoundsException if the range is not within text
+     */
+    void search(CharSequence text, int from, int to, MultiMatchSink sink);
+
+    default void search(CharSequence text, MultiMatchSink sink) {
+        search(text, 0, text.length(), sink);
+    }
+
+    /**
+     * Matches of every pattern, one MatchSet per pattern index
+     */
+    default MatchSet[] findMatches(CharSequence text) {
+        MatchSet[] matches = new MatchSet[patterns().size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = new MatchSet();
+        }
+        search(text, (patternIndex, position) -> {
+            matches[patternIndex].add(position);
+            return true;
+        });
+        return matches;
+    }
+
+    /**
+     * Total number of matches over all patterns
+     */
+    default long count(CharSequence text) {
+        long[] count = new long[1];
+        search(text, (patternIndex, position) -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    default String getName() {
+        return this.getClass().getSimpleName();
+    }
+}
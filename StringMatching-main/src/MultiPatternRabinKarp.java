@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rabin-Karp for a set of patterns: one rolling hash per distinct pattern length
+ *
+ * Patterns are grouped by length. For every group the text window of that
+ * length is hashed with a rolling polynomial hash (mod 2^64, so no division
+ * in the loop), and the hash is looked up in the group's open-addressing
+ * table of pattern hashes (parallel long[]/int[] arrays, linear probing, at
+ * most 1/8 full). Only a hit compares chars, so the cost per text position
+ * is one multiply-add and one probe per distinct length, independent of the
+ * number of patterns. Sets where most patterns share a length (fixed-width
+ * IDs, k-mers) need a single hash.
+ *
+ * Patterns with equal hashes (duplicates, or collisions) are chained in index
+ * order and all verified. A polynomial hash mod 2^64 has known colliding
+ * inputs (Thue-Morse strings), which cost verification time but never a
+ * wrong result. Immutable after construction and safe to share between threads.
+ */
+public final class MultiPatternRabinKarp implements MultiPatternMatcher {
+
+    /** Odd multiplier of the polynomial hash */
+    static final long BASE = 0x100000001B3L;
+
+    /**
+     * Patterns of one length with their hash table
+     */
+    private static final class Group {
+        final int length;
+        final long power;    // BASE^length, removes the char leaving the window
+        final long[] hashes; // slot -> pattern hash
+        final int[] heads;   // slot -> first pattern index + 1, 0 = empty slot
+        final int mask;
+        final int shift;
+
+        Group(int length, int size) {
+            this.length = length;
+            long p = 1;
+            for (int i = 0; i < length; i++) {
+                p *= BASE;
+            }
+            this.power = p;
+            // Sparse on purpose: most windows miss, and a miss that lands on a used slot
+            // is a mispredicted branch, which at half load costs more than the hashing
+            int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, size) * 8 - 1) << 1);
+            this.hashes = new long[capacity];
+            this.heads = new int[capacity];
+            this.mask = capacity - 1;
+            this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        int slot(long hash) {
+            return (int) ((hash * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+    }
+
+    private final List<String> patterns;
+    private final Group[] groups; // ascending length
+    private final int[] next;     // pattern index -> next index + 1 with the same length and hash, 0 = none
+
+    /**
+     * @throws IllegalArgumentException if patterns is empty or contains an empty pattern
+     */
+    public MultiPatternRabinKarp(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns");
+        }
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+        this.next = new int[patterns.size()];
+
+        Map<Integer, List<Integer>> byLength = new TreeMap<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Pattern " + i + " is empty");
+            }
+            byLength.computeIfAbsent(pattern.length(), length -> new ArrayList<>()).add(i);
+        }
+        this.groups = new Group[byLength.size()];
+        int g = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : byLength.entrySet()) {
+            Group group = new Group(entry.getKey(), entry.getValue().size());
+            for (int index : entry.getValue()) {
+                insert(group, hash(this.patterns.get(index), 0, group.length), index);
+            }
+            groups[g++] = group;
+        }
+    }
+
+    private void insert(Group group, long hash, int index) {
+        int slot = group.slot(hash);
+        while (group.heads[slot] != 0 && group.hashes[slot] != hash) {
+            slot = (slot + 1) & group.mask;
+        }
+        if (group.heads[slot] == 0) {
+            group.hashes[slot] = hash;
+            group.heads[slot] = index + 1;
+            return;
+        }
+        // Same hash: append to the chain, keeping index order
+        int last = group.heads[slot] - 1;
+        while (next[last] != 0) {
+            last = next[last] - 1;
+        }
+        next[last] = index + 1;
+    }
+
+    private static long hash(CharSequence s, int start, int length) {
+        long hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = hash * BASE + s.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    /**
+     * Matches at the same position are reported shortest pattern first, then by index
+     */
+    @Override
+    public void search(CharSequence text, int from, int to, MultiMatchSink sink) {
+        Solution.checkRange(text, from, to);
+        int minLength = groups[0].length;
+        if (minLength > to - from) {
+            return;
+        }
+
+        // Hashes of the first window of every length, computed as one growing prefix
+        long[] windowHashes = new long[groups.length];
+        int active = 0; // groups whose window still fits in the range
+        long prefix = 0;
+        for (int k = 0; active < groups.length && from + k < to; k++) {
+            prefix = prefix * BASE + text.charAt(from + k);
+            if (k + 1 == groups[active].length) {
+                windowHashes[active++] = prefix;
+            }
+        }
+
+        int span = SearchBudget.blockSpan(groups.length);
+        for (int block = from; block >= from && block <= to - minLength; block += span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block + Math.min(to - minLength - block, span);
+            for (int i = block; i <= blockEnd; i++) {
+                for (int g = 0; g < active; g++) {
+                    Group group = groups[g];
+                    long hash = windowHashes[g];
+                    int slot = group.slot(hash);
+                    int head;
+                    while ((head = group.heads[slot]) != 0) {
+                        if (group.hashes[slot] == hash) {
+                            if (!verify(text, i, head, sink)) {
+                                return;
+                            }
+                            break;
+                        }
+                        slot = (slot + 1) & group.mask;
+                    }
+                    // Roll to the window starting at i + 1
+                    int end = i + group.length;
+                    if (end < to) {
+                        windowHashes[g] = hash * BASE + text.charAt(end) - text.charAt(i) * group.power;
+                    }
+                }
+                // Longest windows run off the end of the range first
+                while (active > 0 && i + 1 + groups[active - 1].length > to) {
+                    active--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare the chained patterns with the text at position, report the equal ones
+     * @return False if the sink asked to stop
+     */
+    private boolean verify(CharSequence text, int position, int head, MultiMatchSink sink) {
+        for (int index = head - 1; index >= 0; index = next[index] - 1) {
+            String pattern = patterns.get(index);
+            int m = pattern.length();
+            int j = 0;
+            while (j < m && text.charAt(position + j) == pattern.charAt(j)) {
+                j++;
+            }
+            if (j == m && !sink.accept(index, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,277 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap text store for long-lived corpora of any size
+ *
+ * The text lives in direct or memory-mapped ByteBuffers instead of a String,
+ * so the GC never marks or copies it. Indexing is long: the text is split into
+ * segments of SEGMENT_SIZE bytes, and every segment's buffer also holds the
+ * first OVERLAP bytes of the next one. A pattern of up to OVERLAP + 1 bytes
+ * therefore always lies completely inside one buffer.
+ *
+ * A search does not run the algorithm on the ByteBuffer itself: every
+ * ByteBuffer.get is bounds-checked and not vectorized, which made KMP about
+ * 60% slower than on a String. Instead each segment is bulk-copied, CHUNK
+ * bytes at a time (plus m - 1 bytes of overlap), into one small byte[] that
+ * is reused for the whole search, and the algorithm runs on that array through
+ * a Latin-1 TextView with the range API, so it never scans past the chunk.
+ * Positions are shifted to absolute long offsets.
+ *
+ * Bytes are matched as Latin-1 chars, for UTF-8 text encode the pattern with
+ * Utf8Search.encode. close() ends the store's lifetime: later calls fail with
+ * IllegalStateException, and the direct memory / mappings are freed right away
+ * (Unsafe.invokeCleaner on Java 9+, the buffer's Cleaner on Java 8) once no
+ * search is running - a close() during a search frees when that search ends.
+ * If neither is available, the memory is left to the GC as before.
+ */
+public final class OffHeapText implements AutoCloseable {
+
+    static final int SEGMENT_SIZE = 1 << 30;
+    static final int OVERLAP = 1 << 20;
+    /** Bytes copied to the heap per step of a search, small enough to stay in cache */
+    static final int CHUNK = 1 << 16;
+
+    private final long length;
+    private final int segmentSize;
+    private final int overlap;
+    private final ByteBuffer[] segments;
+    private boolean closed;      // guarded by this
+    private int activeSearches;  // guarded by this
+
+    private OffHeapText(long length, int segmentSize, int overlap, ByteBuffer[] segments) {
+        this.length = length;
+        this.segmentSize = segmentSize;
+        this.overlap = overlap;
+        this.segments = segments;
+    }
+
+    /**
+     * Memory-map a file read-only, the pages are loaded by the OS on access
+     */
+    public static OffHeapText map(Path file) throws IOException {
+        return map(file, SEGMENT_SIZE, OVERLAP);
+    }
+
+    static OffHeapText map(Path file, int segmentSize, int overlap) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(length, segmentSize)];
+            for (int k = 0; k < segments.length; k++) {
+                long start = (long) k * segmentSize;
+                segments[k] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        windowLength(length, start, segmentSize, overlap));
+            }
+            return new OffHeapText(length, segmentSize, overlap, segments);
+        }
+    }
+
+    /**
+     * Read a file into direct memory, independent of the file afterwards
+     */
+    public static OffHeapText load(Path file) throws IOException {
+        return load(file, SEGMENT_SIZE, OVERLAP);
+    }
+
+    static OffHeapText load(Path file, int segmentSize, int overlap) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(length, segmentSize)];
+            for (int k = 0; k < segments.length; k++) {
+                long start = (long) k * segmentSize;
+                ByteBuffer segment = ByteBuffer.allocateDirect(windowLength(length, start, segmentSize, overlap));
+                while (segment.hasRemaining()) {
+                    if (channel.read(segment, start + segment.position()) < 0) {
+                        throw new IOException("File " + file + " shrank while loading");
+                    }
+                }
+                segment.flip();
+                segments[k] = segment;
+            }
+            return new OffHeapText(length, segmentSize, overlap, segments);
+        }
+    }
+
+    /**
+     * Copy bytes into direct memory
+     */
+    public static OffHeapText copyOf(byte[] bytes) {
+        return copyOf(bytes, SEGMENT_SIZE, OVERLAP);
+    }
+
+    static OffHeapText copyOf(byte[] bytes, int segmentSize, int overlap) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(bytes.length, segmentSize)];
+        for (int k = 0; k < segments.length; k++) {
+            int start = k * segmentSize;
+            int window = windowLength(bytes.length, start, segmentSize, overlap);
+            segments[k] = ByteBuffer.allocateDirect(window).put(bytes, start, window);
+            segments[k].flip();
+        }
+        return new OffHeapText(bytes.length, segmentSize, overlap, segments);
+    }
+
+    private static int segmentCount(long length, int segmentSize) {
+        long count = Math.max(1, (length + segmentSize - 1) / segmentSize);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Text too large: " + length + " bytes");
+        }
+        return (int) count;
+    }
+
+    private static int windowLength(long length, long start, int segmentSize, int overlap) {
+        return (int) Math.min((long) segmentSize + overlap, length - start);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public byte get(long index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + ", length " + length);
+        }
+        acquire();
+        try {
+            return segments[(int) (index / segmentSize)].get((int) (index % segmentSize));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Report every match of pattern in ascending order, using algorithm on each chunk
+     * @throws IllegalArgumentException if the pattern is longer than OVERLAP + 1
+     * @throws IllegalStateException if the store is closed, also when closed during the search
+     */
+    public void search(Solution algorithm, String pattern, LongMatchSink sink) {
+        int m = pattern.length();
+        if (m > overlap + 1) {
+            throw new IllegalArgumentException("Pattern longer than " + (overlap + 1) + " chars");
+        }
+        acquire();
+        try {
+            int step = Math.max(CHUNK, m);
+            byte[] window = new byte[(int) Math.min((long) step + m, segmentSize + (long) overlap)];
+            TextView view = TextView.latin1(window);
+            boolean[] stopped = new boolean[1];
+            for (int k = 0; k < segments.length; k++) {
+                ByteBuffer segment = segments[k].duplicate();
+                boolean last = k == segments.length - 1;
+                // Matches starting in the overlap belong to the next segment,
+                // the last segment also reports the empty pattern's match at the end
+                int starts = last ? segment.limit() + 1 : segmentSize;
+                for (int chunk = 0; chunk < starts; chunk += step) {
+                    // Chunk reports starts in [chunk, chunk + step), reading m - 1 bytes past them
+                    int copied = Math.min(segment.limit() - chunk, step + m - 1);
+                    segment.position(chunk);
+                    segment.get(window, 0, copied);
+                    int to = Math.min(copied, Math.min(starts - chunk, step) + m - 1);
+                    long base = (long) k * segmentSize + chunk;
+                    algorithm.search(view, pattern, 0, to, position -> {
+                        if (!sink.accept(base + position)) {
+                            stopped[0] = true;
+                            return false;
+                        }
+                        return true;
+                    });
+                    if (stopped[0]) {
+                        return;
+                    }
+                    checkOpen();
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    public long count(Solution algorithm, String pattern) {
+        long[] count = new long[1];
+        search(algorithm, pattern, position -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * End the lifetime of the store and free the off-heap memory, immediately
+     * or when the running searches end
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (activeSearches == 0) {
+            free();
+        }
+    }
+
+    private synchronized void acquire() {
+        checkOpen();
+        activeSearches++;
+    }
+
+    private synchronized void release() {
+        if (--activeSearches == 0 && closed) {
+            free();
+        }
+    }
+
+    private synchronized void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapText is closed");
+        }
+    }
+
+    private void free() {
+        for (int k = 0; k < segments.length; k++) {
+            if (segments[k] != null && segments[k].isDirect()) {
+                freeDirect(segments[k]);
+            }
+            segments[k] = null;
+        }
+    }
+
+    /**
+     * Free a direct or mapped buffer now, false if this JVM offers no way (the GC frees it later)
+     * The buffer must not be accessed afterwards
+     */
+    static boolean freeDirect(ByteBuffer buffer) {
+        try {
+            // Java 9+: sun.misc.Unsafe.invokeCleaner, in the jdk.unsupported module
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (NoSuchMethodException java8) {
+            try {
+                // Java 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return true;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return false;
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
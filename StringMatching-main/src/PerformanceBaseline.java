@@ -0,0 +1,347 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Stores ManualTest timing/allocation results in a baseline file and compares
+ * later runs against it to catch performance regressions.
+ *
+ * File format (tab separated, UTF-8):
+ *   # comment lines
+ *   version=1
+ *   test  algorithm  status  avgNanos  minNanos  allocatedBytes  run1,run2,...
+ *
+ * Comparisons use the minimum of the timed runs, it is much less noisy than
+ * the average on a shared machine.
+ */
+public class PerformanceBaseline {
+
+    static final int FORMAT_VERSION = 1;
+    static final String DEFAULT_FILE = "baseline.tsv";
+
+    /**
+     * One (test case, algorithm) measurement
+     */
+    static class Entry {
+        String testName;
+        String algorithmName;
+        String status; // PASS, FAIL, ERROR or N/A
+        long avgNanos;
+        long minNanos;
+        long allocatedBytes; // -1 if not measured
+        long[] runTimes;
+
+        String key() {
+            return testName + "\t" + algorithmName;
+        }
+    }
+
+    /**
+     * Thresholds for deciding if a difference is significant.
+     * A change must pass both the relative and the absolute limit,
+     * so tiny tests don't flip between regression and improvement.
+     */
+    static class Thresholds {
+        double timePercent = 25.0;
+        long minTimeNanos = 2_000;
+        double allocationPercent = 10.0;
+        long minAllocationBytes = 1_024;
+    }
+
+    /**
+     * Comparison of one entry against its baseline
+     */
+    static class Delta {
+        Entry baseline;
+        Entry current;
+        double timeChangePercent;
+        double allocationChangePercent;
+        boolean timeRegression;
+        boolean timeImprovement;
+        boolean allocationRegression;
+        boolean allocationImprovement;
+        boolean statusChanged;
+    }
+
+    /**
+     * Result of comparing a run against a baseline
+     */
+    static class Report {
+        List<Delta> deltas = new ArrayList<>();
+        List<Entry> missingInCurrent = new ArrayList<>();
+        List<Entry> newInCurrent = new ArrayList<>();
+
+        int count(boolean regression) {
+            int count = 0;
+            for (Delta delta : deltas) {
+                if (regression ? isRegression(delta) : isImprovement(delta)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        boolean hasRegressions() {
+            return count(true) > 0;
+        }
+
+        static boolean isRegression(Delta delta) {
+            return delta.timeRegression || delta.allocationRegression || delta.statusChanged;
+        }
+
+        static boolean isImprovement(Delta delta) {
+            return !isRegression(delta) && (delta.timeImprovement || delta.allocationImprovement);
+        }
+    }
+
+    /**
+     * Convert ManualTestRunner results into baseline entries
+     */
+    static List<Entry> fromResults(List<ManualTestRunner.TestExecutionResult> results) {
+        List<Entry> entries = new ArrayList<>();
+        for (ManualTestRunner.TestExecutionResult testResult : results) {
+            for (ManualTestRunner.AlgorithmTestResult algResult : testResult.algorithmResults.values()) {
+                Entry entry = new Entry();
+                entry.testName = testResult.testCase.getName();
+                entry.algorithmName = algResult.algorithmName;
+                entry.status = algResult.status();
+                entry.avgNanos = algResult.executionTimeNanos;
+                entry.runTimes = algResult.allRunTimes.clone();
+                long min = Long.MAX_VALUE;
+                for (long t : entry.runTimes) {
+                    min = Math.min(min, t);
+                }
+                entry.minNanos = entry.runTimes.length > 0 ? min : 0;
+                entry.allocatedBytes = algResult.allocatedBytes;
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Write entries to a baseline file
+     */
+    static void save(List<Entry> entries, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# StringMatching performance baseline\n");
+            writer.write("# java=" + System.getProperty("java.version")
+                    + " os=" + System.getProperty("os.name") + "/" + System.getProperty("os.arch")
+                    + " cpus=" + Runtime.getRuntime().availableProcessors() + "\n");
+            writer.write("# created=" + new Date() + "\n");
+            writer.write("version=" + FORMAT_VERSION + "\n");
+            writer.write("# test\talgorithm\tstatus\tavgNanos\tminNanos\tallocatedBytes\truns\n");
+            for (Entry entry : entries) {
+                StringBuilder runs = new StringBuilder();
+                for (int i = 0; i < entry.runTimes.length; i++) {
+                    if (i > 0) {
+                        runs.append(',');
+                    }
+                    runs.append(entry.runTimes[i]);
+                }
+                writer.write(escape(entry.testName) + "\t" + escape(entry.algorithmName) + "\t"
+                        + entry.status + "\t" + entry.avgNanos + "\t" + entry.minNanos + "\t"
+                        + entry.allocatedBytes + "\t" + runs + "\n");
+            }
+        }
+    }
+
+    /**
+     * Read entries from a baseline file
+     */
+    static List<Entry> load(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int version = -1;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("version=")) {
+                    version = Integer.parseInt(line.substring("version=".length()).trim());
+                    if (version != FORMAT_VERSION) {
+                        throw new IllegalArgumentException("Unsupported baseline version " + version
+                                + " in " + file + " (expected " + FORMAT_VERSION + ")");
+                    }
+                    continue;
+                }
+                if (version < 0) {
+                    throw new IllegalArgumentException("Missing version line in " + file);
+                }
+                String[] parts = line.split("\t", -1);
+                if (parts.length != 7) {
+                    throw new IllegalArgumentException("Invalid baseline line " + lineNumber + " in " + file);
+                }
+                Entry entry = new Entry();
+                entry.testName = unescape(parts[0]);
+                entry.algorithmName = unescape(parts[1]);
+                entry.status = parts[2];
+                entry.avgNanos = Long.parseLong(parts[3]);
+                entry.minNanos = Long.parseLong(parts[4]);
+                entry.allocatedBytes = Long.parseLong(parts[5]);
+                String[] runs = parts[6].isEmpty() ? new String[0] : parts[6].split(",");
+                entry.runTimes = new long[runs.length];
+                for (int i = 0; i < runs.length; i++) {
+                    entry.runTimes[i] = Long.parseLong(runs[i]);
+                }
+                entries.add(entry);
+            }
+        }
+        if (version < 0) {
+            throw new IllegalArgumentException("Missing version line in " + file);
+        }
+        return entries;
+    }
+
+    /**
+     * Compare current entries against baseline entries
+     */
+    static Report compare(List<Entry> baseline, List<Entry> current, Thresholds thresholds) {
+        Report report = new Report();
+        Map<String, Entry> baselineByKey = new LinkedHashMap<>();
+        for (Entry entry : baseline) {
+            baselineByKey.put(entry.key(), entry);
+        }
+
+        for (Entry entry : current) {
+            Entry base = baselineByKey.remove(entry.key());
+            if (base == null) {
+                report.newInCurrent.add(entry);
+                continue;
+            }
+
+            Delta delta = new Delta();
+            delta.baseline = base;
+            delta.current = entry;
+            delta.statusChanged = "PASS".equals(base.status) && !"PASS".equals(entry.status);
+
+            if ("PASS".equals(base.status) && "PASS".equals(entry.status)) {
+                long diff = entry.minNanos - base.minNanos;
+                delta.timeChangePercent = percentChange(base.minNanos, entry.minNanos);
+                delta.timeRegression = diff > thresholds.minTimeNanos
+                        && delta.timeChangePercent > thresholds.timePercent;
+                delta.timeImprovement = -diff > thresholds.minTimeNanos
+                        && -delta.timeChangePercent > thresholds.timePercent;
+
+                if (base.allocatedBytes >= 0 && entry.allocatedBytes >= 0) {
+                    long allocDiff = entry.allocatedBytes - base.allocatedBytes;
+                    delta.allocationChangePercent = percentChange(base.allocatedBytes, entry.allocatedBytes);
+                    delta.allocationRegression = allocDiff > thresholds.minAllocationBytes
+                            && delta.allocationChangePercent > thresholds.allocationPercent;
+                    delta.allocationImprovement = -allocDiff > thresholds.minAllocationBytes
+                            && -delta.allocationChangePercent > thresholds.allocationPercent;
+                }
+            }
+            report.deltas.add(delta);
+        }
+
+        report.missingInCurrent.addAll(baselineByKey.values());
+        return report;
+    }
+
+    /**
+     * Print the regressions and improvements of a comparison
+     */
+    static void printReport(Report report, Thresholds thresholds) {
+        final String GREEN = "\u001B[32m";
+        final String RED = "\u001B[31m";
+        final String RESET = "\u001B[0m";
+
+        System.out.println("\n" + "=".repeat(120));
+        System.out.println("BASELINE COMPARISON");
+        System.out.printf("Thresholds: time > %.1f%% and > %.3f μs, allocation > %.1f%% and > %d bytes%n",
+                thresholds.timePercent, thresholds.minTimeNanos / 1000.0,
+                thresholds.allocationPercent, thresholds.minAllocationBytes);
+        System.out.println("=".repeat(120));
+        System.out.printf("%-32s %-12s %14s %14s %10s %14s %14s %10s%n",
+                "Test Case", "Algorithm", "Base min(μs)", "Now min(μs)", "Time Δ",
+                "Base alloc(B)", "Now alloc(B)", "Alloc Δ");
+        System.out.println("-".repeat(120));
+
+        for (Delta delta : report.deltas) {
+            boolean regression = Report.isRegression(delta);
+            boolean improvement = Report.isImprovement(delta);
+            if (!regression && !improvement) {
+                continue;
+            }
+            String color = regression ? RED : GREEN;
+            String timeChange = delta.statusChanged
+                    ? delta.baseline.status + "→" + delta.current.status
+                    : String.format("%+.1f%%", delta.timeChangePercent);
+            System.out.printf("%s%-32s %-12s %14.3f %14.3f %10s %14d %14d %+9.1f%%%s%n",
+                    color,
+                    truncate(delta.current.testName, 30),
+                    truncate(delta.current.algorithmName, 12),
+                    delta.baseline.minNanos / 1000.0,
+                    delta.current.minNanos / 1000.0,
+                    timeChange,
+                    delta.baseline.allocatedBytes,
+                    delta.current.allocatedBytes,
+                    delta.allocationChangePercent,
+                    RESET);
+        }
+        System.out.println("-".repeat(120));
+
+        int regressions = report.count(true);
+        int improvements = report.count(false);
+        System.out.printf("Compared: %d | Regressions: %d | Improvements: %d | Unchanged: %d%n",
+                report.deltas.size(), regressions, improvements,
+                report.deltas.size() - regressions - improvements);
+        if (!report.newInCurrent.isEmpty()) {
+            System.out.println("Not in baseline (new): " + report.newInCurrent.size());
+        }
+        if (!report.missingInCurrent.isEmpty()) {
+            System.out.println("Missing from this run: " + report.missingInCurrent.size());
+        }
+
+        if (regressions > 0) {
+            System.out.println(RED + "✗ Significant regressions found" + RESET);
+        } else {
+            System.out.println(GREEN + "✓ No significant regressions" + RESET);
+        }
+        System.out.println("=".repeat(120));
+    }
+
+    private static double percentChange(long before, long after) {
+        if (before == 0) {
+            return after == 0 ? 0.0 : 100.0;
+        }
+        return (after - before) * 100.0 / before;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String truncate(String str, int maxLength) {
+        if (str.length() <= maxLength) {
+            return str;
+        }
+        return str.substring(0, maxLength - 2) + "..";
+    }
+}
@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Cost-guided performance fuzzer
+ *
+ * Searches for (text, pattern) pairs that make one algorithm slow. There is no
+ * coverage feedback, the only signal is the measured runtime per text character.
+ * The search is a small (mu + lambda) evolution: keep the POPULATION most
+ * expensive inputs, create mutants from them, keep the most expensive again.
+ *
+ * The text length stays fixed during a run so runtimes are comparable.
+ * The worst inputs are written as JSON test cases in the testcases format,
+ * with the expected result computed by KMP and cross-checked by Naive.
+ */
+public class PerformanceFuzzer {
+
+    static final String DEFAULT_OUTPUT_DIR = "fuzz";
+    private static final int POPULATION = 8;
+    private static final int CHILDREN = 16;
+    private static final int TIMED_RUNS = 5;
+    // Small alphabet keeps the JSON readable and makes periodic inputs likely
+    private static final String ALPHABET = "ABCD";
+
+    /**
+     * Fuzzer settings
+     */
+    static class Config {
+        int textLength = 4096;
+        int maxPatternLength = 64;
+        long budgetMillisPerAlgorithm = 10_000;
+        int casesToSave = 2;
+        long seed = 42;
+    }
+
+    /**
+     * A candidate input and its measured cost
+     */
+    static class Candidate {
+        final String text;
+        final String pattern;
+        double nanosPerChar;
+
+        Candidate(String text, String pattern) {
+            this.text = text;
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * Worst inputs found for one algorithm
+     */
+    static class FuzzResult {
+        String algorithmName;
+        List<Candidate> worst = new ArrayList<>();
+        double seedCost; // most expensive starting point
+        int evaluations;
+        int generations;
+    }
+
+    private final Config config;
+    private final Random random;
+
+    PerformanceFuzzer(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /**
+     * Fuzz one algorithm until its time budget runs out
+     */
+    FuzzResult fuzz(Solution solution) {
+        FuzzResult result = new FuzzResult();
+        result.algorithmName = solution.getName();
+
+        List<Candidate> seeds = seeds();
+        // Get the algorithm JIT-compiled first, the seed costs would be inflated otherwise
+        for (int i = 0; i < 20; i++) {
+            for (Candidate seed : seeds) {
+                solution.Solve(seed.text, seed.pattern);
+            }
+        }
+
+        List<Candidate> population = new ArrayList<>();
+        for (Candidate seed : seeds) {
+            evaluate(solution, seed);
+            result.evaluations++;
+            population.add(seed);
+        }
+        sortByCost(population);
+
+        long deadline = System.nanoTime() + config.budgetMillisPerAlgorithm * 1_000_000L;
+        while (System.nanoTime() < deadline) {
+            List<Candidate> next = new ArrayList<>(population);
+            for (int i = 0; i < CHILDREN; i++) {
+                Candidate parent = population.get(random.nextInt(population.size()));
+                Candidate child = random.nextInt(4) == 0
+                        ? crossover(parent, population.get(random.nextInt(population.size())))
+                        : mutate(parent);
+                evaluate(solution, child);
+                result.evaluations++;
+                next.add(child);
+            }
+            // Re-measure survivors so one lucky slow measurement doesn't stick forever
+            for (Candidate survivor : population) {
+                evaluate(solution, survivor);
+            }
+            sortByCost(next);
+            population = new ArrayList<>(next.subList(0, POPULATION));
+            result.generations++;
+        }
+
+        // Final costs measured back to back, so seed and worst are comparable
+        for (Candidate seed : seeds) {
+            evaluate(solution, seed);
+            result.seedCost = Math.max(result.seedCost, seed.nanosPerChar);
+        }
+        for (Candidate candidate : population) {
+            evaluate(solution, candidate);
+        }
+        sortByCost(population);
+
+        for (Candidate candidate : population) {
+            if (result.worst.size() == config.casesToSave) {
+                break;
+            }
+            if (!containsSame(result.worst, candidate)) {
+                result.worst.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starting points: random text plus the known bad shapes
+     */
+    private List<Candidate> seeds() {
+        int n = config.textLength;
+        int m = Math.min(16, config.maxPatternLength);
+        List<Candidate> seeds = new ArrayList<>();
+        String randomText = randomString(n, ALPHABET);
+        seeds.add(new Candidate(randomText, randomText.substring(n / 2, n / 2 + m)));
+        seeds.add(new Candidate("A".repeat(n), "A".repeat(m - 1) + "B"));
+        seeds.add(new Candidate("A".repeat(n), "B" + "A".repeat(m - 1)));
+        seeds.add(new Candidate("A".repeat(n), "A".repeat(m)));
+        seeds.add(new Candidate("AB".repeat(n / 2), "AB".repeat(Math.max(0, m / 2 - 1)) + "AA"));
+        while (seeds.size() < POPULATION) {
+            seeds.add(mutate(seeds.get(random.nextInt(seeds.size()))));
+        }
+        return seeds;
+    }
+
+    /**
+     * Apply one random structural mutation, text length never changes
+     */
+    private Candidate mutate(Candidate parent) {
+        char[] text = parent.text.toCharArray();
+        String pattern = parent.pattern;
+        int n = text.length;
+
+        switch (random.nextInt(8)) {
+            case 0: { // point mutations in text
+                int count = 1 + random.nextInt(8);
+                for (int i = 0; i < count; i++) {
+                    text[random.nextInt(n)] = randomChar();
+                }
+                break;
+            }
+            case 1: { // fill a range with one char
+                int start = random.nextInt(n);
+                int end = Math.min(n, start + 1 + random.nextInt(n / 4));
+                Arrays.fill(text, start, end, randomChar());
+                break;
+            }
+            case 2: { // make the text periodic with the pattern (or a prefix of it)
+                int period = 1 + random.nextInt(Math.max(1, pattern.length()));
+                for (int i = 0; i < n; i++) {
+                    text[i] = pattern.charAt(i % period);
+                }
+                break;
+            }
+            case 3: { // copy a block inside the text
+                int length = 1 + random.nextInt(n / 4);
+                int from = random.nextInt(n - length + 1);
+                int to = random.nextInt(n - length + 1);
+                System.arraycopy(text, from, text, to, length);
+                break;
+            }
+            case 4: { // point mutation in pattern
+                char[] p = pattern.toCharArray();
+                p[random.nextInt(p.length)] = randomChar();
+                pattern = new String(p);
+                break;
+            }
+            case 5: { // grow or shrink the pattern
+                if (pattern.length() < config.maxPatternLength && (pattern.length() <= 2 || random.nextBoolean())) {
+                    int at = random.nextInt(pattern.length() + 1);
+                    pattern = pattern.substring(0, at) + randomChar() + pattern.substring(at);
+                } else {
+                    int at = random.nextInt(pattern.length());
+                    pattern = pattern.substring(0, at) + pattern.substring(at + 1);
+                }
+                break;
+            }
+            case 6: { // cut the pattern from the text, then break one char
+                int m = pattern.length();
+                int start = random.nextInt(n - m + 1);
+                char[] p = Arrays.copyOfRange(text, start, start + m);
+                p[random.nextInt(m)] = randomChar();
+                pattern = new String(p);
+                break;
+            }
+            default: { // swap a pattern char for its neighbour (rotations/near-periods)
+                char[] p = pattern.toCharArray();
+                if (p.length > 1) {
+                    int at = random.nextInt(p.length - 1);
+                    char tmp = p[at];
+                    p[at] = p[at + 1];
+                    p[at + 1] = tmp;
+                }
+                pattern = new String(p);
+                break;
+            }
+        }
+        return new Candidate(new String(text), pattern);
+    }
+
+    /**
+     * Text prefix of one parent with text suffix of the other, pattern from either
+     */
+    private Candidate crossover(Candidate a, Candidate b) {
+        int cut = random.nextInt(config.textLength);
+        String text = a.text.substring(0, cut) + b.text.substring(cut);
+        return new Candidate(text, random.nextBoolean() ? a.pattern : b.pattern);
+    }
+
+    /**
+     * Cost = best of TIMED_RUNS runtimes divided by the text length
+     */
+    private static void evaluate(Solution solution, Candidate candidate) {
+        long best = Long.MAX_VALUE;
+        solution.Solve(candidate.text, candidate.pattern); // warm caches
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            solution.Solve(candidate.text, candidate.pattern);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        candidate.nanosPerChar = best / (double) candidate.text.length();
+    }
+
+    /**
+     * Write the worst inputs as JSON test cases, returns the written files
+     */
+    static List<Path> saveAsTestCases(FuzzResult result, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Solution reference = AlgorithmRegistry.get("KMP");
+        Solution crossCheck = AlgorithmRegistry.get("Naive");
+        List<Path> written = new ArrayList<>();
+
+        for (int i = 0; i < result.worst.size(); i++) {
+            Candidate candidate = result.worst.get(i);
+            String expected = reference.Solve(candidate.text, candidate.pattern);
+            if (!expected.equals(crossCheck.Solve(candidate.text, candidate.pattern))) {
+                throw new IllegalStateException("KMP and Naive disagree on fuzz case " + (i + 1));
+            }
+
+            String name = String.format("Fuzz Worst Case %s #%d", result.algorithmName, i + 1);
+            Path file = directory.resolve(String.format("fuzz_%s_%02d.json",
+                    result.algorithmName.toLowerCase(Locale.ROOT), i + 1));
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("{\n");
+                writer.write("  \"name\": " + Json.quote(name) + ",\n");
+                writer.write("  \"text\": " + Json.quote(candidate.text) + ",\n");
+                writer.write("  \"pattern\": " + Json.quote(candidate.pattern) + ",\n");
+                writer.write("  \"expected\": " + Json.quote(expected) + "\n");
+                writer.write("}\n");
+            }
+            written.add(file);
+        }
+        return written;
+    }
+
+    /**
+     * Fuzz each named algorithm, print a summary and save the worst cases
+     */
+    public static void run(List<String> algorithmNames, Config config, Path outputDir) {
+        PerformanceFuzzer fuzzer = new PerformanceFuzzer(config);
+        List<FuzzResult> results = new ArrayList<>();
+
+        for (String name : algorithmNames) {
+            Solution solution = null;
+            for (Solution candidate : AlgorithmRegistry.all()) {
+                if (candidate.getName().equalsIgnoreCase(name)) {
+                    solution = candidate;
+                }
+            }
+            if (solution == null) {
+                System.out.println("⚠ Warning: Unknown algorithm '" + name + "' (ignored)");
+                continue;
+            }
+
+            System.out.printf("Fuzzing %s for %.1f s...%n", solution.getName(), config.budgetMillisPerAlgorithm / 1000.0);
+            FuzzResult result = fuzzer.fuzz(solution);
+            results.add(result);
+            try {
+                for (Path file : saveAsTestCases(result, outputDir)) {
+                    System.out.println("  saved " + file);
+                }
+            } catch (IOException e) {
+                System.err.println("Error saving fuzz cases: " + e.getMessage());
+            }
+        }
+
+        System.out.println("\n" + "=".repeat(110));
+        System.out.println("PERFORMANCE FUZZER - worst inputs found (runtime per text character)");
+        System.out.println("=".repeat(110));
+        System.out.printf("%-12s %8s %8s %14s %14s %8s   %s%n",
+                "Algorithm", "Evals", "Gens", "Seed (ns/ch)", "Worst (ns/ch)", "Factor", "Worst pattern");
+        System.out.println("-".repeat(110));
+        for (FuzzResult result : results) {
+            Candidate worst = result.worst.get(0);
+            System.out.printf("%-12s %8d %8d %14.2f %14.2f %7.1fx   %s%n",
+                    result.algorithmName, result.evaluations, result.generations,
+                    result.seedCost, worst.nanosPerChar, worst.nanosPerChar / result.seedCost,
+                    truncate(worst.pattern, 40));
+        }
+        System.out.println("=".repeat(110));
+        System.out.println("Run the saved cases with: java ManualTest fuzzcases");
+    }
+
+    private static void sortByCost(List<Candidate> candidates) {
+        candidates.sort((a, b) -> Double.compare(b.nanosPerChar, a.nanosPerChar));
+    }
+
+    private static boolean containsSame(List<Candidate> candidates, Candidate candidate) {
+        for (Candidate other : candidates) {
+            if (other.pattern.equals(candidate.pattern) && other.text.equals(candidate.text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private char randomChar() {
+        return ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+
+    private String randomString(int length, String alphabet) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    private static String truncate(String str, int maxLength) {
+        if (str.length() <= maxLength) {
+            return str;
+        }
+        return str.substring(0, maxLength - 2) + "..";
+    }
+}
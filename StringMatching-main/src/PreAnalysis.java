@@ -31,6 +31,17 @@ public abstract class PreAnalysis {
      * This will be displayed in the output
      */
     public abstract String getStrategyDescription();
+
+    /**
+     * StudentPreAnalysis for code outside this file, which should not name the auxiliary class
+     */
+    static PreAnalysis student() {
+        return new StudentPreAnalysis();
+    }
+
+    static PreAnalysis student(PreAnalysisThresholds thresholds) {
+        return new StudentPreAnalysis(thresholds);
+    }
 }
 
 
@@ -38,24 +49,22 @@ public abstract class PreAnalysis {
  * Student implementation of pre-analysis logic
  * Theory-driven selection optimized for our 5 algorithms:
  * Naive, KMP, RabinKarp, BoyerMoore, GoCrazy (Adaptive Horspool++)
+ *
+ * The cutoffs of the rules are read at startup from preanalysis.properties
+ * (or the file named by -Dpreanalysis.config) when it exists, so they can be
+ * re-tuned per machine with PreAnalysisTuner; otherwise the defaults below apply.
  */
 class StudentPreAnalysis extends PreAnalysis {
-    
-    // Pattern length thresholds
-    private static final int SINGLE_CHAR = 1;
-    private static final int VERY_SHORT = 3;
-    private static final int SHORT = 8;
-    private static final int MEDIUM = 20;
-    private static final int LONG = 50;
-    
-    // Text length thresholds
-    private static final int TINY_TEXT = 100;
-    private static final int SMALL_TEXT = 1000;
-    private static final int MEDIUM_TEXT = 10000;
-    
-    // Pattern characteristic thresholds
-    private static final double HIGH_REPETITION = 0.4;
-    private static final int MIN_FOR_REPETITION_CHECK = 4;
+
+    private final PreAnalysisThresholds thresholds;
+
+    public StudentPreAnalysis() {
+        this(PreAnalysisThresholds.loadDefault());
+    }
+
+    StudentPreAnalysis(PreAnalysisThresholds thresholds) {
+        this.thresholds = thresholds;
+    }
     
     @Override
     public String chooseAlgorithm(String text, String pattern) {
@@ -70,9 +79,9 @@ class StudentPreAnalysis extends PreAnalysis {
         // ═══════════════════════════════════════════════════════════
         // RULE 2: Very short patterns (2-3 chars) → Context matters
         // ═══════════════════════════════════════════════════════════
-        if (m <= VERY_SHORT) {
+        if (m <= thresholds.veryShort) {
             // For tiny texts, Naive has no overhead
-            if (m == 1 || n <= TINY_TEXT) {
+            if (m == 1 || n <= thresholds.tinyText) {
                 return "Naive";
             }
             // GoCrazy's Horspool skip table is lightweight and effective
@@ -85,16 +94,16 @@ class StudentPreAnalysis extends PreAnalysis {
         // ═══════════════════════════════════════════════════════════
         // KMP's LPS table excels when pattern has self-similarity
         // Examples: "AAAA", "ABABAB", "ABCABCABC"
-        if (m >= MIN_FOR_REPETITION_CHECK && hasHighRepetition(pattern)) {
+        if (m >= thresholds.minForRepetitionCheck && hasHighRepetition(pattern)) {
             return "KMP";
         }
         
         // ═══════════════════════════════════════════════════════════
         // RULE 4: Short-medium patterns (4-8 chars) → Horspool territory
         // ═══════════════════════════════════════════════════════════
-        if (m <= SHORT) {
+        if (m <= thresholds.shortPattern) {
             // Very small texts still favor Naive (no preprocessing)
-            if (n < TINY_TEXT) {
+            if (n < thresholds.tinyText) {
                 return "Naive";
             }
             // GoCrazy's Horspool with last-char caching is optimal here
@@ -105,10 +114,10 @@ class StudentPreAnalysis extends PreAnalysis {
         // ═══════════════════════════════════════════════════════════
         // RULE 5: Medium patterns (9-20 chars) → BoyerMoore vs GoCrazy
         // ═══════════════════════════════════════════════════════════
-        if (m <= MEDIUM) {
+        if (m <= thresholds.medium) {
             // For large texts, BoyerMoore's good suffix rule adds value
             // Its preprocessing overhead is justified by skip efficiency
-            if (n >= SMALL_TEXT) {
+            if (n >= thresholds.smallText) {
                 return "BoyerMoore";
             }
             // For smaller texts, GoCrazy is still competitive
@@ -119,14 +128,14 @@ class StudentPreAnalysis extends PreAnalysis {
         // ═══════════════════════════════════════════════════════════
         // RULE 6: Long patterns (21-50 chars) → RabinKarp starts winning
         // ═══════════════════════════════════════════════════════════
-        if (m <= LONG) {
+        if (m <= thresholds.longPattern) {
             // For very large texts, RabinKarp's O(n+m) rolling hash shines
             // Constant-time hash comparison regardless of pattern length
-            if (n >= MEDIUM_TEXT) {
+            if (n >= thresholds.mediumText) {
                 return "RabinKarp";
             }
             // For medium texts, BoyerMoore can still skip effectively
-            if (n >= SMALL_TEXT) {
+            if (n >= thresholds.smallText) {
                 return "BoyerMoore";
             }
             // For smaller texts, simpler algorithms suffice
@@ -148,7 +157,7 @@ class StudentPreAnalysis extends PreAnalysis {
      * which is also Suffix) table
      * 
      * Detection methods:
-     * 1. Character frequency: If any char appears in 40%+ of pattern
+     * 1. Character frequency: If any char appears in HIGH_REPETITION (40%) or more of pattern
      * 2. Substring repetition: If pattern contains repeating substrings
      * 
      * Time: O(m²) worst case for substring check, but early exits common
@@ -169,9 +178,9 @@ class StudentPreAnalysis extends PreAnalysis {
             }
         }
         
-        // If any character appears in 40%+ of pattern → highly repetitive
+        // If any character appears in HIGH_REPETITION (40%) or more of pattern → highly repetitive
         double ratio = (double) maxFreq / m;
-        if (ratio >= HIGH_REPETITION) {
+        if (ratio >= thresholds.highRepetition) {
             return true;
         }
         
@@ -209,38 +218,43 @@ class StudentPreAnalysis extends PreAnalysis {
     
     @Override
     public String getStrategyDescription() {
+        PreAnalysisThresholds t = thresholds;
+        String repetition = String.format(java.util.Locale.ROOT, "%.0f%%", t.highRepetition * 100);
         return "Theory-driven algorithm selection optimized for our specific implementations:\n" +
                "\n" +
                "GoCrazy (Adaptive Horspool++):\n" +
                "  - Single char: Ultra-fast linear scan (O(n))\n" +
-               "  - Short patterns (2-8): Lightweight Horspool skip table + last-char caching\n" +
-               "  - Best for: m ≤ 8, especially when n < 1000\n" +
+               "  - Short patterns (2-" + t.shortPattern + "): Lightweight Horspool skip table + last-char caching\n" +
+               "  - Best for: m ≤ " + t.shortPattern + ", especially when n < " + t.smallText + "\n" +
                "\n" +
                "KMP (Knuth-Morris-Pratt):\n" +
                "  - O(n+m) with LPS table\n" +
-               "  - Best for: Repetitive patterns (40%+ char repetition or repeating substrings)\n" +
+               "  - Best for: Repetitive patterns (" + repetition + "+ char repetition or repeating substrings)\n" +
                "  - Examples: 'AAAA', 'ABABAB', 'ABCABCABC'\n" +
                "\n" +
                "BoyerMoore:\n" +
                "  - O(n/m) best case with bad char + good suffix rules\n" +
-               "  - Best for: Medium patterns (9-20) with large texts (n ≥ 1000)\n" +
+               "  - Best for: Medium patterns (" + (t.shortPattern + 1) + "-" + t.medium
+                       + ") with large texts (n ≥ " + t.smallText + ")\n" +
                "  - Heavier preprocessing justified by large skip distances\n" +
                "\n" +
                "RabinKarp:\n" +
                "  - O(n+m) average with rolling hash\n" +
-               "  - Best for: Long patterns (m > 20) with very large texts (n ≥ 10000)\n" +
+               "  - Best for: Long patterns (m > " + t.medium + ") with very large texts (n ≥ " + t.mediumText + ")\n" +
                "  - O(1) hash comparison regardless of pattern length\n" +
                "\n" +
                "Naive:\n" +
                "  - O(n*m) brute force\n" +
-               "  - Best for: Edge cases (m=0, m>n) or tiny inputs (n < 100, m ≤ 3)\n" +
+               "  - Best for: Edge cases (m=0, m>n) or tiny inputs (n < " + t.tinyText + ", m ≤ " + t.veryShort + ")\n" +
                "  - Zero preprocessing overhead\n" +
                "\n" +
                "Decision factors:\n" +
                "  - Pattern length (m): Primary factor for algorithm selection\n" +
                "  - Text length (n): Determines if preprocessing overhead is justified\n" +
                "  - Pattern characteristics: Repetition detection for KMP\n" +
-               "  - Preprocessing vs. search trade-off: Shorter patterns favor lighter algorithms";
+               "  - Preprocessing vs. search trade-off: Shorter patterns favor lighter algorithms\n" +
+               "\n" +
+               "Thresholds: " + t;
     }
 }
 
@@ -20,6 +20,8 @@ public class PreAnalysisComparison {
         long timeSavedOrLost; // Positive means saved, negative means lost
         boolean preAnalysisChoseFastest;
         List<String> allAlgorithmNames; // Ordered list of all algorithms
+        long[] preAnalysisRunTimes = new long[5];
+        long[] chosenRunTimes = new long[5];
 
         public ComparisonResult(String testCaseName) {
             this.testCaseName = testCaseName;
@@ -50,14 +52,18 @@ public class PreAnalysisComparison {
      */
     private static ComparisonResult compareForTestCase(PreAnalysis preAnalysis, TestCase testCase) {
         ComparisonResult result = new ComparisonResult(testCase.getName());
+        // Decoded once, outside the timed runs (a corpus slice is decoded on every getText())
+        String text = testCase.getText();
+        String pattern = testCase.getPattern();
 
         // Run pre-analysis 5 times and take average
         long totalAnalysisTime = 0;
         String chosenAlgorithm = null;
         for (int i = 0; i < 5; i++) {
             long analysisStart = System.nanoTime();
-            chosenAlgorithm = preAnalysis.chooseAlgorithm(testCase.getText(), testCase.getPattern());
+            chosenAlgorithm = SearchEvents.choose(preAnalysis, text, pattern);
             long analysisEnd = System.nanoTime();
+            result.preAnalysisRunTimes[i] = analysisEnd - analysisStart;
             totalAnalysisTime += (analysisEnd - analysisStart);
         }
 
@@ -71,19 +77,9 @@ public class PreAnalysisComparison {
 
         // Run the chosen algorithm 5 times and take average
         try {
-            Solution chosenSolution = createSolutionByName(chosenAlgorithm);
-            // Warm up
-            chosenSolution.Solve(testCase.getText(), testCase.getPattern());
-
-            long totalChosenTime = 0;
-            for (int i = 0; i < 5; i++) {
-                long chosenStart = System.nanoTime();
-                chosenSolution.Solve(testCase.getText(), testCase.getPattern());
-                long chosenEnd = System.nanoTime();
-                totalChosenTime += (chosenEnd - chosenStart);
-            }
-
-            result.chosenAlgorithmTimeNanos = totalChosenTime / 5;
+            Solution chosenSolution = AlgorithmRegistry.get(chosenAlgorithm);
+            result.chosenAlgorithmTimeNanos = averageTimeNanos(chosenSolution, text, pattern,
+                    result.chosenRunTimes);
             result.totalTimeWithPreAnalysis = result.preAnalysisTimeNanos + result.chosenAlgorithmTimeNanos;
 
         } catch (Exception e) {
@@ -97,24 +93,12 @@ public class PreAnalysisComparison {
         result.allAlgorithmTimes.put(chosenAlgorithm, result.chosenAlgorithmTimeNanos);
         result.allAlgorithmNames.add(chosenAlgorithm);
 
-        for (Class<? extends Solution> algorithmClass : Solution.SUBCLASSES) {
-            String algName = algorithmClass.getSimpleName();
+        for (Solution solution : AlgorithmRegistry.all()) {
+            String algName = solution.getName();
 
             if (!algName.equals(chosenAlgorithm)) {
                 try {
-                    Solution solution = algorithmClass.getDeclaredConstructor().newInstance();
-                    // Warm up
-                    solution.Solve(testCase.getText(), testCase.getPattern());
-
-                    long totalTime = 0;
-                    for (int i = 0; i < 5; i++) {
-                        long start = System.nanoTime();
-                        solution.Solve(testCase.getText(), testCase.getPattern());
-                        long end = System.nanoTime();
-                        totalTime += (end - start);
-                    }
-
-                    long avgTime = totalTime / 5;
+                    long avgTime = averageTimeNanos(solution, text, pattern, null);
                     result.allAlgorithmTimes.put(algName, avgTime);
                     result.allAlgorithmNames.add(algName);
 
@@ -140,17 +124,26 @@ public class PreAnalysisComparison {
 
         return result;
     }
-    
+
     /**
-     * Create a solution instance by algorithm name
+     * Average time of 5 runs after one warm-up run, the timing behind every table here
+     * @param runTimes Receives the time of each run, may be null
      */
-    private static Solution createSolutionByName(String name) throws Exception {
-        for (Class<? extends Solution> algorithmClass : Solution.SUBCLASSES) {
-            if (algorithmClass.getSimpleName().equals(name)) {
-                return algorithmClass.getDeclaredConstructor().newInstance();
+    static long averageTimeNanos(Solution solution, String text, String pattern, long[] runTimes) {
+        // Warm up
+        SearchEvents.findMatches(solution, text, pattern);
+
+        long totalTime = 0;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            SearchEvents.findMatches(solution, text, pattern);
+            long end = System.nanoTime();
+            if (runTimes != null) {
+                runTimes[i] = end - start;
             }
+            totalTime += (end - start);
         }
-        throw new IllegalArgumentException("Algorithm not found: " + name);
+        return totalTime / 5;
     }
     
     /**
@@ -158,24 +151,24 @@ public class PreAnalysisComparison {
      */
     public static void printComparisonTable(List<ComparisonResult> results, PreAnalysis preAnalysis) {
         if (results.isEmpty()) {
-            System.out.println("\n" + repeat("=", 100));
+            System.out.println("\n" + "=".repeat(100));
             System.out.println("PRE-ANALYSIS COMPARISON TABLE");
-            System.out.println(repeat("=", 100));
+            System.out.println("=".repeat(100));
             System.out.println("Pre-analysis returned null for all test cases (no algorithm selection made).");
             System.out.println("This means all algorithms were run without pre-analysis optimization.");
-            System.out.println(repeat("=", 100));
+            System.out.println("=".repeat(100));
             return;
         }
         
-        System.out.println("\n" + repeat("=", 120));
+        System.out.println("\n" + "=".repeat(120));
         System.out.println("PRE-ANALYSIS PERFORMANCE COMPARISON");
         System.out.println("Strategy: " + preAnalysis.getStrategyDescription());
-        System.out.println(repeat("=", 120));
+        System.out.println("=".repeat(120));
         
         // Print header
         System.out.printf("%-25s %-12s %-12s %-12s %-12s %-15s %-15s%n",
                 "Test Case", "Chosen Alg", "Analysis(μs)", "Exec(μs)", "Total(μs)", "Fastest Alg", "Time Diff(μs)");
-        System.out.println(repeat("-", 120));
+        System.out.println("-".repeat(120));
         
         // Print results for each test case
         long totalTimeSaved = 0;
@@ -207,7 +200,7 @@ public class PreAnalysisComparison {
             totalTimeSaved += result.timeSavedOrLost;
         }
         
-        System.out.println(repeat("=", 120));
+        System.out.println("=".repeat(120));
         
         // Print summary
         printSummary(results, totalTimeSaved, correctChoices);
@@ -218,7 +211,7 @@ public class PreAnalysisComparison {
      */
     private static void printSummary(List<ComparisonResult> results, long totalTimeSaved, int correctChoices) {
         System.out.println("\nPRE-ANALYSIS SUMMARY:");
-        System.out.println(repeat("-", 120));
+        System.out.println("-".repeat(120));
         
         double totalTimeSavedMs = totalTimeSaved / 1_000_000.0;
         double avgTimeSavedMs = totalTimeSavedMs / results.size();
@@ -250,7 +243,7 @@ public class PreAnalysisComparison {
         System.out.println("- '✓' = Pre-analysis chose the fastest algorithm");
         System.out.println("- '✗' = Pre-analysis did NOT choose the fastest algorithm");
         
-        System.out.println(repeat("=", 120));
+        System.out.println("=".repeat(120));
     }
     
     /**
@@ -266,11 +259,11 @@ public class PreAnalysisComparison {
         final String RED = "\u001B[31m";
         final String RESET = "\u001B[0m";
 
-        System.out.println("\n" + repeat("=", 140));
+        System.out.println("\n" + "=".repeat(140));
         System.out.println("PREANALYSIS PERFORMANCE COMPARISON");
         System.out.println("Shows: (PreAnalysis + Chosen Algorithm) vs Each Algorithm");
         System.out.println("Green = PreAnalysis was faster | Red = PreAnalysis was slower");
-        System.out.println(repeat("=", 140));
+        System.out.println("=".repeat(140));
 
         // Get all unique algorithm names
         Set<String> allAlgSet = new LinkedHashSet<>();
@@ -285,7 +278,7 @@ public class PreAnalysisComparison {
             System.out.printf(" %-22s", "vs " + alg);
         }
         System.out.println();
-        System.out.println(repeat("-", 140));
+        System.out.println("-".repeat(140));
 
         // Print each test case
         for (ComparisonResult result : results) {
@@ -325,7 +318,7 @@ public class PreAnalysisComparison {
             System.out.println();
         }
 
-        System.out.println(repeat("=", 140));
+        System.out.println("=".repeat(140));
 
         // Print interpretation
         System.out.println("\nINTERPRETATION:");
@@ -334,7 +327,7 @@ public class PreAnalysisComparison {
         System.out.println("  - " + GREEN + "Negative (Green)" + RESET + " = PreAnalysis was FASTER (saved time)");
         System.out.println("  - " + RED + "Positive (Red)" + RESET + " = PreAnalysis was SLOWER (wasted time)");
         System.out.println("- 'N/A' = This is the chosen algorithm (already included in PreA+Choice)");
-        System.out.println(repeat("=", 140));
+        System.out.println("=".repeat(140));
     }
 
     /**
@@ -361,17 +354,7 @@ public class PreAnalysisComparison {
 
         // Add padding for the difference
         int padding = n - visibleLength;
-        return s + repeat(" ", padding);
-    }
-    
-    // Java 8 compatible repeat helper
-    private static String repeat(String str, int count) {
-        if (count <= 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(str);
-        }
-        return sb.toString();
+        return s + " ".repeat(padding);
     }
 }
 
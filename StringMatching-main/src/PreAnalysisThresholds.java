@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Rule cutoffs of StudentPreAnalysis, the defaults are the hand-picked values
+ *
+ * Also used by ShadowEvaluator for its input buckets and written by
+ * PreAnalysisTuner, so they live in their own file.
+ */
+final class PreAnalysisThresholds {
+    static final String DEFAULT_FILE = "preanalysis.properties";
+    static final String CONFIG_PROPERTY = "preanalysis.config";
+
+    /** Keys of the properties file, in the order they are written */
+    static final String[] NAMES = {
+        "VERY_SHORT", "SHORT", "MEDIUM", "LONG",
+        "TINY_TEXT", "SMALL_TEXT", "MEDIUM_TEXT",
+        "HIGH_REPETITION", "MIN_FOR_REPETITION_CHECK"
+    };
+
+    // Pattern length thresholds
+    int veryShort = 3;
+    int shortPattern = 8;
+    int medium = 20;
+    int longPattern = 50;
+
+    // Text length thresholds
+    int tinyText = 100;
+    int smallText = 1000;
+    int mediumText = 10000;
+
+    // Pattern characteristic thresholds
+    double highRepetition = 0.4;
+    int minForRepetitionCheck = 4;
+
+    double get(String name) {
+        switch (name) {
+            case "VERY_SHORT": return veryShort;
+            case "SHORT": return shortPattern;
+            case "MEDIUM": return medium;
+            case "LONG": return longPattern;
+            case "TINY_TEXT": return tinyText;
+            case "SMALL_TEXT": return smallText;
+            case "MEDIUM_TEXT": return mediumText;
+            case "HIGH_REPETITION": return highRepetition;
+            case "MIN_FOR_REPETITION_CHECK": return minForRepetitionCheck;
+            default: throw new IllegalArgumentException("Unknown threshold: " + name);
+        }
+    }
+
+    void set(String name, double value) {
+        int rounded = (int) Math.round(value);
+        switch (name) {
+            case "VERY_SHORT": veryShort = rounded; break;
+            case "SHORT": shortPattern = rounded; break;
+            case "MEDIUM": medium = rounded; break;
+            case "LONG": longPattern = rounded; break;
+            case "TINY_TEXT": tinyText = rounded; break;
+            case "SMALL_TEXT": smallText = rounded; break;
+            case "MEDIUM_TEXT": mediumText = rounded; break;
+            case "HIGH_REPETITION": highRepetition = value; break;
+            case "MIN_FOR_REPETITION_CHECK": minForRepetitionCheck = rounded; break;
+            default: throw new IllegalArgumentException("Unknown threshold: " + name);
+        }
+    }
+
+    PreAnalysisThresholds copy() {
+        PreAnalysisThresholds copy = new PreAnalysisThresholds();
+        for (String name : NAMES) {
+            copy.set(name, get(name));
+        }
+        return copy;
+    }
+
+    /**
+     * True if the length classes are in increasing order, as the rules assume
+     */
+    boolean isValid() {
+        return 1 <= veryShort && veryShort < shortPattern && shortPattern < medium && medium < longPattern
+                && 0 <= tinyText && tinyText < smallText && smallText < mediumText
+                && highRepetition > 0 && highRepetition <= 1 && minForRepetitionCheck >= 1;
+    }
+
+    /**
+     * Read a properties file, keys missing from it keep their default
+     * @throws IOException if it cannot be read, IllegalArgumentException for bad values
+     */
+    static PreAnalysisThresholds load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        PreAnalysisThresholds thresholds = new PreAnalysisThresholds();
+        for (String name : NAMES) {
+            String value = properties.getProperty(name);
+            if (value != null) {
+                try {
+                    thresholds.set(name, Double.parseDouble(value.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+                }
+            }
+        }
+        if (!thresholds.isValid()) {
+            throw new IllegalArgumentException("Thresholds out of order: " + thresholds);
+        }
+        return thresholds;
+    }
+
+    /**
+     * The startup configuration: -Dpreanalysis.config, else preanalysis.properties
+     * in the working directory (where the tuner writes it), else the defaults
+     */
+    static PreAnalysisThresholds loadDefault() {
+        String configured = System.getProperty(CONFIG_PROPERTY);
+        Path file = configured != null ? Paths.get(configured) : Paths.get(DEFAULT_FILE);
+        if (configured == null && !Files.exists(file)) {
+            return new PreAnalysisThresholds();
+        }
+        try {
+            return load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading " + file + ", using default thresholds: " + e.getMessage());
+            return new PreAnalysisThresholds();
+        }
+    }
+
+    void save(Path file, String comment) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String line : comment.split("\n")) {
+                out.write("# " + line + "\n");
+            }
+            for (String name : NAMES) {
+                out.write(name + "=" + format(name) + "\n");
+            }
+        }
+    }
+
+    private String format(String name) {
+        return name.equals("HIGH_REPETITION")
+                ? String.format(Locale.ROOT, "%.2f", highRepetition)
+                : String.valueOf((int) get(name));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (String name : NAMES) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(name).append('=').append(format(name));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,355 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tunes the rule thresholds of StudentPreAnalysis for the machine it runs on
+ *
+ * Every algorithm is timed once per input of a generated workload, with
+ * PreAnalysisComparison's timing (warm-up run, average of 5). The score of a
+ * threshold configuration is then the time of the analysis itself (measured
+ * for each configuration) plus the precomputed time of the algorithm it picks
+ * for each input, summed over the workload: the "PreA+Choice" total of the
+ * comparison table. Lower is better.
+ *
+ * The search runs over a few candidate values per threshold:
+ *   GRID     every combination, thinned evenly when there are more than maxEvaluations
+ *   RANDOM   maxEvaluations random combinations
+ *   DESCENT  coordinate descent from the current thresholds: one threshold at a
+ *            time moves to its best value, until a round changes nothing
+ *
+ * The best configuration is written as a properties file that
+ * StudentPreAnalysis loads at startup.
+ */
+public final class PreAnalysisTuner {
+
+    enum Strategy { GRID, RANDOM, DESCENT }
+
+    /** A move must improve the score by this fraction, so timing noise does not drive the descent */
+    static final double MIN_IMPROVEMENT = 0.002;
+    static final int ANALYSIS_PASSES = 5;
+    static final int MAX_DESCENT_ROUNDS = 10;
+
+    /** Candidate values per threshold, the defaults included */
+    static final Map<String, double[]> CANDIDATES = new LinkedHashMap<>();
+    static {
+        CANDIDATES.put("VERY_SHORT", new double[]{1, 2, 3, 4, 5});
+        CANDIDATES.put("SHORT", new double[]{5, 6, 8, 10, 12, 16});
+        CANDIDATES.put("MEDIUM", new double[]{12, 16, 20, 24, 32});
+        CANDIDATES.put("LONG", new double[]{32, 40, 50, 64, 80, 100});
+        CANDIDATES.put("TINY_TEXT", new double[]{0, 50, 100, 200, 500});
+        CANDIDATES.put("SMALL_TEXT", new double[]{250, 500, 1000, 2000, 5000});
+        CANDIDATES.put("MEDIUM_TEXT", new double[]{2000, 5000, 10000, 20000, 50000});
+        CANDIDATES.put("HIGH_REPETITION", new double[]{0.25, 0.3, 0.4, 0.5, 0.6, 0.8, 1.0});
+        CANDIDATES.put("MIN_FOR_REPETITION_CHECK", new double[]{2, 4, 6, 8, 1000});
+    }
+
+    public static class Config {
+        public Strategy strategy = Strategy.DESCENT;
+        public int maxEvaluations = 500;
+        public int workloadSize = 120;
+        public int maxTextLength = 50000;
+        public int maxPatternLength = 120;
+        public long seed = 42;
+    }
+
+    public static class Result {
+        PreAnalysisThresholds baseline;
+        long baselineScoreNanos;
+        PreAnalysisThresholds best;
+        long bestScoreNanos;
+        int evaluations;
+        int workloadSize;
+    }
+
+    /**
+     * One workload input with the time of every algorithm on it
+     */
+    private static final class Item {
+        final String text;
+        final String pattern;
+        final Map<String, Long> algorithmNanos = new HashMap<>();
+
+        Item(String text, String pattern) {
+            this.text = text;
+            this.pattern = pattern;
+        }
+    }
+
+    private final Config config;
+    private final List<Item> workload;
+    private final long worstNanos;
+    private final Map<String, Long> scores = new HashMap<>();
+
+    private PreAnalysisTuner(Config config, List<Item> workload) {
+        this.config = config;
+        this.workload = workload;
+        long worst = 0;
+        for (Item item : workload) {
+            for (long nanos : item.algorithmNanos.values()) {
+                worst = Math.max(worst, nanos);
+            }
+        }
+        this.worstNanos = worst;
+    }
+
+    /**
+     * Generate the workload, time the algorithms on it and search from baseline
+     */
+    public static Result tune(PreAnalysisThresholds baseline, Config config) {
+        System.out.println("Generating workload of " + config.workloadSize + " inputs...");
+        List<Item> workload = generateWorkload(config);
+        System.out.println("Timing " + AlgorithmRegistry.all().size() + " algorithms on every input...");
+        timeAlgorithms(workload);
+
+        PreAnalysisTuner tuner = new PreAnalysisTuner(config, workload);
+        Result result = new Result();
+        result.workloadSize = workload.size();
+        result.baseline = baseline.copy();
+        result.baselineScoreNanos = tuner.score(baseline);
+        System.out.println("Searching thresholds (" + config.strategy.name().toLowerCase(Locale.ROOT) + ")...");
+        PreAnalysisThresholds best;
+        switch (config.strategy) {
+            case GRID:
+                best = tuner.grid(baseline);
+                break;
+            case RANDOM:
+                best = tuner.random(baseline);
+                break;
+            default:
+                best = tuner.descent(baseline);
+        }
+        // Re-measure both, the winner must still beat the baseline
+        long bestScore = tuner.measure(best);
+        long baselineScore = tuner.measure(baseline);
+        result.evaluations = tuner.scores.size();
+        if (bestScore < baselineScore) {
+            result.best = best;
+            result.bestScoreNanos = bestScore;
+            result.baselineScoreNanos = baselineScore;
+        } else {
+            result.best = baseline.copy();
+            result.bestScoreNanos = baselineScore;
+            result.baselineScoreNanos = baselineScore;
+        }
+        return result;
+    }
+
+    private PreAnalysisThresholds grid(PreAnalysisThresholds start) {
+        String[] names = CANDIDATES.keySet().toArray(new String[0]);
+        long total = 1;
+        for (String name : names) {
+            total *= CANDIDATES.get(name).length;
+        }
+        long points = Math.min(total, config.maxEvaluations);
+        PreAnalysisThresholds best = start.copy();
+        long bestScore = score(best);
+        for (long i = 0; i < points; i++) {
+            long index = i * total / points;
+            PreAnalysisThresholds candidate = new PreAnalysisThresholds();
+            for (String name : names) {
+                double[] values = CANDIDATES.get(name);
+                candidate.set(name, values[(int) (index % values.length)]);
+                index /= values.length;
+            }
+            long candidateScore = score(candidate);
+            if (candidateScore < bestScore) {
+                best = candidate;
+                bestScore = candidateScore;
+            }
+        }
+        return best;
+    }
+
+    private PreAnalysisThresholds random(PreAnalysisThresholds start) {
+        Random random = new Random(config.seed);
+        PreAnalysisThresholds best = start.copy();
+        long bestScore = score(best);
+        for (int i = 0; i < config.maxEvaluations; i++) {
+            PreAnalysisThresholds candidate = new PreAnalysisThresholds();
+            for (Map.Entry<String, double[]> entry : CANDIDATES.entrySet()) {
+                double[] values = entry.getValue();
+                candidate.set(entry.getKey(), values[random.nextInt(values.length)]);
+            }
+            long candidateScore = score(candidate);
+            if (candidateScore < bestScore) {
+                best = candidate;
+                bestScore = candidateScore;
+            }
+        }
+        return best;
+    }
+
+    private PreAnalysisThresholds descent(PreAnalysisThresholds start) {
+        PreAnalysisThresholds best = start.copy();
+        long bestScore = score(best);
+        for (int round = 0; round < MAX_DESCENT_ROUNDS && scores.size() < config.maxEvaluations; round++) {
+            boolean moved = false;
+            for (Map.Entry<String, double[]> entry : CANDIDATES.entrySet()) {
+                for (double value : entry.getValue()) {
+                    PreAnalysisThresholds candidate = best.copy();
+                    candidate.set(entry.getKey(), value);
+                    long candidateScore = score(candidate);
+                    if (candidateScore < bestScore * (1 - MIN_IMPROVEMENT)) {
+                        best = candidate;
+                        bestScore = candidateScore;
+                        moved = true;
+                    }
+                }
+            }
+            System.out.printf("  round %d: %.1f μs%n", round + 1, bestScore / 1000.0);
+            if (!moved) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Score of a configuration, measured once per distinct configuration
+     * Invalid configurations score Long.MAX_VALUE
+     */
+    private long score(PreAnalysisThresholds thresholds) {
+        if (!thresholds.isValid()) {
+            return Long.MAX_VALUE;
+        }
+        String key = thresholds.toString();
+        Long cached = scores.get(key);
+        if (cached == null) {
+            cached = measure(thresholds);
+            scores.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Analysis time over the workload (fastest of ANALYSIS_PASSES passes) plus
+     * the time of the chosen algorithm on every input
+     */
+    private long measure(PreAnalysisThresholds thresholds) {
+        PreAnalysis analysis = PreAnalysis.student(thresholds);
+        String[] choices = new String[workload.size()];
+        long analysisNanos = Long.MAX_VALUE;
+        for (int pass = 0; pass < ANALYSIS_PASSES; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < choices.length; i++) {
+                Item item = workload.get(i);
+                choices[i] = analysis.chooseAlgorithm(item.text, item.pattern);
+            }
+            analysisNanos = Math.min(analysisNanos, System.nanoTime() - start);
+        }
+        long total = analysisNanos;
+        for (int i = 0; i < choices.length; i++) {
+            Long nanos = choices[i] == null ? null : workload.get(i).algorithmNanos.get(choices[i]);
+            total += nanos != null ? nanos : worstNanos;
+        }
+        return total;
+    }
+
+    private static void timeAlgorithms(List<Item> workload) {
+        // One pass first so the timed runs see JIT-compiled code
+        for (Item item : workload) {
+            for (Solution solution : AlgorithmRegistry.all()) {
+                solution.findMatches(item.text, item.pattern);
+            }
+        }
+        for (Item item : workload) {
+            for (Solution solution : AlgorithmRegistry.all()) {
+                item.algorithmNanos.put(solution.getName(),
+                        PreAnalysisComparison.averageTimeNanos(solution, item.text, item.pattern, null));
+            }
+        }
+    }
+
+    /**
+     * Inputs spread over the ranges the rules distinguish: log-uniform text and
+     * pattern lengths, alphabets from binary to A-Z, mostly patterns cut from
+     * the text (some with one char changed), and some periodic worst cases
+     */
+    private static List<Item> generateWorkload(Config config) {
+        Random random = new Random(config.seed);
+        List<ComplexityScaling.CorpusFamily> randomFamilies = new ArrayList<>();
+        randomFamilies.add(new ComplexityScaling.RandomFamily("random A-Z", "ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
+        randomFamilies.add(new ComplexityScaling.RandomFamily("words", "eeeetttaaoinshrdlucmfwypvbgkqjxz     "));
+        randomFamilies.add(new ComplexityScaling.RandomFamily("DNA (ACGT)", "ACGT"));
+        randomFamilies.add(new ComplexityScaling.RandomFamily("binary", "ab"));
+        List<ComplexityScaling.CorpusFamily> periodicFamilies = new ArrayList<>();
+        for (ComplexityScaling.CorpusFamily family : ComplexityScaling.defaultFamilies()) {
+            if (family instanceof ComplexityScaling.PeriodicFamily) {
+                periodicFamilies.add(family);
+            }
+        }
+
+        List<Item> workload = new ArrayList<>();
+        for (int i = 0; i < config.workloadSize; i++) {
+            boolean periodic = !periodicFamilies.isEmpty() && random.nextInt(5) == 0;
+            List<ComplexityScaling.CorpusFamily> families = periodic ? periodicFamilies : randomFamilies;
+            ComplexityScaling.CorpusFamily family = families.get(random.nextInt(families.size()));
+            int n = logUniform(random, 20, config.maxTextLength);
+            int m = logUniform(random, 1, Math.min(n, config.maxPatternLength));
+            String text = family.text(n, random);
+            String pattern = family.pattern(text, m, random);
+            if (!periodic && random.nextInt(10) < 3) {
+                char[] chars = pattern.toCharArray();
+                chars[random.nextInt(chars.length)] = text.charAt(random.nextInt(text.length()));
+                pattern = new String(chars);
+            }
+            workload.add(new Item(text, pattern));
+        }
+        return workload;
+    }
+
+    private static int logUniform(Random random, int min, int max) {
+        if (max <= min) {
+            return min;
+        }
+        double value = Math.exp(Math.log(min) + random.nextDouble() * (Math.log(max + 1) - Math.log(min)));
+        return Math.max(min, Math.min(max, (int) value));
+    }
+
+    /**
+     * Write the tuned thresholds with a header describing the run and the machine
+     */
+    public static void save(Result result, Config config, Path file) throws IOException {
+        String comment = "StudentPreAnalysis thresholds, generated by PreAnalysisTuner\n"
+                + String.format(Locale.ROOT, "strategy=%s evaluations=%d workload=%d seed=%d",
+                        config.strategy.name().toLowerCase(Locale.ROOT), result.evaluations,
+                        result.workloadSize, config.seed) + "\n"
+                + String.format(Locale.ROOT, "workload time: %.1f us (before: %.1f us)",
+                        result.bestScoreNanos / 1000.0, result.baselineScoreNanos / 1000.0) + "\n"
+                + "machine: " + System.getProperty("os.arch") + ", "
+                + Runtime.getRuntime().availableProcessors() + " cpus, java " + System.getProperty("java.version");
+        result.best.save(file, comment);
+    }
+
+    public static void printReport(Result result) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("PRE-ANALYSIS THRESHOLD TUNING");
+        System.out.println("=".repeat(80));
+        System.out.printf("Workload: %d inputs | Configurations evaluated: %d%n", result.workloadSize, result.evaluations);
+        System.out.printf("Total time (analysis + chosen algorithm): %.1f μs -> %.1f μs (%+.1f%%)%n",
+                result.baselineScoreNanos / 1000.0, result.bestScoreNanos / 1000.0,
+                result.baselineScoreNanos == 0 ? 0
+                        : 100.0 * (result.bestScoreNanos - result.baselineScoreNanos) / result.baselineScoreNanos);
+        System.out.println("-".repeat(80));
+        System.out.printf("%-26s | %12s | %12s%n", "Threshold", "Before", "Tuned");
+        System.out.println("-".repeat(80));
+        for (String name : PreAnalysisThresholds.NAMES) {
+            double before = result.baseline.get(name);
+            double after = result.best.get(name);
+            System.out.printf("%-26s | %12s | %12s%s%n", name, format(before), format(after),
+                    before != after ? "  *" : "");
+        }
+        System.out.println("=".repeat(80));
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
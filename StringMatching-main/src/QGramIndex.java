@@ -0,0 +1,317 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Positional q-gram index over a growing set of documents
+ *
+ * For every q-gram (q consecutive chars, q = 1..4, packed 16 bits per char
+ * into a long key) the index keeps the (document, position) pairs where it
+ * occurs, as a compressed posting list: per entry a varint document delta,
+ * then a varint position delta within the same document (absolute position
+ * in a new one). Documents get ascending ids and are scanned left to right,
+ * so adding a document only appends to posting lists - nothing is rebuilt.
+ *
+ * A query takes q-grams of the pattern at offsets 0, q, 2q, ... plus one
+ * ending at the last char, which together cover the pattern. Their posting
+ * lists are intersected positionally (occurrence at p of the gram at offset
+ * k proposes a match start at p - k), rarest list first, and the surviving
+ * candidates are verified with the Solution given to the constructor.
+ * Patterns shorter than q cannot use the index and scan every document.
+ *
+ * Thread-safe: queries run in parallel, addDocument excludes them.
+ */
+public final class QGramIndex {
+
+    public static final int DEFAULT_Q = 3;
+
+    /**
+     * Growable varint-encoded posting list of one q-gram
+     */
+    private static final class PostingList {
+        byte[] data = new byte[8];
+        int length;    // bytes used
+        int entries;
+        int lastDocument = -1;
+        int lastPosition;
+
+        void add(int document, int position) {
+            if (data.length - length < 10) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            writeVarint(document - lastDocument);
+            writeVarint(document == lastDocument ? position - lastPosition : position);
+            lastDocument = document;
+            lastPosition = position;
+            entries++;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * Sequential decoder of a posting list into (document << 32 | position - offset) keys
+     */
+    private static final class Cursor {
+        private final PostingList list;
+        private final int offset;
+        private int read;
+        private int document = -1;
+        private int position;
+
+        Cursor(PostingList list, int offset) {
+            this.list = list;
+            this.offset = offset;
+        }
+
+        /**
+         * Next proposed match start as a key, or -1 at the end of the list
+         */
+        long next() {
+            while (read < list.length) {
+                int documentDelta = readVarint();
+                int value = readVarint();
+                position = documentDelta == 0 ? position + value : value;
+                document += documentDelta;
+                if (position >= offset) {
+                    return (long) document << 32 | (position - offset);
+                }
+            }
+            return -1;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = list.data[read++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private final int q;
+    private final Solution verifier;
+    private final List<String> documents = new ArrayList<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long indexedChars;
+
+    public QGramIndex(Solution verifier) {
+        this(DEFAULT_Q, verifier);
+    }
+
+    /**
+     * @throws IllegalArgumentException if q is not within 1..4
+     */
+    public QGramIndex(int q, Solution verifier) {
+        if (q < 1 || q > 4) {
+            throw new IllegalArgumentException("q must be within 1..4: " + q);
+        }
+        this.q = q;
+        this.verifier = verifier;
+    }
+
+    /**
+     * Index a document, appending to the posting lists of its q-grams
+     * @return The id of the document, ids ascend from 0
+     */
+    public int addDocument(String document) {
+        lock.writeLock().lock();
+        try {
+            int id = documents.size();
+            documents.add(document);
+            long mask = q == 4 ? -1L : (1L << (16 * q)) - 1;
+            long gram = 0;
+            for (int i = 0; i < document.length(); i++) {
+                gram = (gram << 16 | document.charAt(i)) & mask;
+                if (i >= q - 1) {
+                    postings.computeIfAbsent(gram, key -> new PostingList()).add(id, i - q + 1);
+                }
+            }
+            indexedChars += document.length();
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Matches of pattern in every document
+     * @return Document id -> match positions, ascending ids, only documents with matches
+     */
+    public Map<Integer, MatchSet> search(String pattern) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, MatchSet> matches = new TreeMap<>();
+            int m = pattern.length();
+            if (m < q) {
+                for (int id = 0; id < documents.size(); id++) {
+                    MatchSet set = verifier.findMatches(documents.get(id), pattern);
+                    if (set.size() > 0) {
+                        matches.put(id, set);
+                    }
+                }
+                return matches;
+            }
+
+            long[] candidates = candidates(pattern);
+            MatchSet set = null;
+            int setDocument = -1;
+            for (long key : candidates) {
+                int id = (int) (key >>> 32);
+                int start = (int) key;
+                String document = documents.get(id);
+                if (start + m > document.length()) {
+                    continue;
+                }
+                if (id != setDocument) {
+                    set = new MatchSet();
+                    setDocument = id;
+                }
+                boolean first = set.size() == 0;
+                verifier.search(document, pattern, start, start + m, set);
+                if (first && set.size() > 0) {
+                    matches.put(id, set);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Match starts proposed by all covering q-grams of pattern, ascending keys
+     */
+    private long[] candidates(String pattern) {
+        int m = pattern.length();
+        List<Integer> offsets = new ArrayList<>();
+        for (int k = 0; k + q <= m; k += q) {
+            offsets.add(k);
+        }
+        if (offsets.get(offsets.size() - 1) != m - q) {
+            offsets.add(m - q);
+        }
+        PostingList[] lists = new PostingList[offsets.size()];
+        for (int i = 0; i < lists.length; i++) {
+            long gram = 0;
+            for (int j = offsets.get(i); j < offsets.get(i) + q; j++) {
+                gram = gram << 16 | pattern.charAt(j);
+            }
+            lists[i] = postings.get(gram);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+
+        // Rarest list first, so the candidate array only shrinks from its smallest size
+        Integer[] order = new Integer[lists.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(lists[a].entries, lists[b].entries));
+        long[] candidates = new long[lists[order[0]].entries];
+        int size = 0;
+        Cursor first = new Cursor(lists[order[0]], offsets.get(order[0]));
+        for (long key = first.next(); key >= 0; key = first.next()) {
+            candidates[size++] = key;
+        }
+        for (int i = 1; i < order.length && size > 0; i++) {
+            // Merge intersection of two ascending sequences, in place
+            Cursor cursor = new Cursor(lists[order[i]], offsets.get(order[i]));
+            long key = cursor.next();
+            int kept = 0;
+            for (int c = 0; c < size && key >= 0; c++) {
+                while (key >= 0 && key < candidates[c]) {
+                    key = cursor.next();
+                }
+                if (key == candidates[c]) {
+                    candidates[kept++] = key;
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(candidates, size);
+    }
+
+    public String getDocument(int id) {
+        lock.readLock().lock();
+        try {
+            return documents.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of encoded postings (used, not allocated), to compare with 8 bytes per raw (document, position)
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getQ() {
+        return q;
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            long entries = 0;
+            for (PostingList list : postings.values()) {
+                entries += list.entries;
+            }
+            long bytes = postingBytes();
+            return String.format(Locale.ROOT,
+                    "QGramIndex{q=%d, documents=%d, chars=%d, grams=%d, postings=%d, %d bytes (%.2f per posting)}",
+                    q, documents.size(), indexedChars, postings.size(), entries, bytes,
+                    entries == 0 ? 0.0 : (double) bytes / entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,685 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Roaring-style bitmap of match positions for dense results
+ *
+ * Positions are split into chunks of 65536 by their high 16 bits. Each chunk
+ * is stored in the smallest of three containers:
+ *   - array:  sorted 16-bit values, 2 bytes per match (sparse chunks, up to 4096 matches)
+ *   - bitmap: 1024 longs, 8 KB for any number of matches (dense chunks)
+ *   - run:    (start, length) pairs, 4 bytes per run of consecutive matches
+ *
+ * Algorithms fill it directly through MatchSink. While filling, chunks are
+ * arrays or bitmaps; optimize() converts each chunk to its smallest form, so
+ * the n + 1 matches of an empty pattern end up as one run per 65536 positions.
+ * Compared to List<Integer> (about 20 bytes per match) that is 1 bit or less
+ * per match for dense results, and 2 bytes per match for sparse ones.
+ */
+public final class RoaringMatchSet implements MatchSink {
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size; // number of chunks in use
+
+    @Override
+    public boolean accept(int position) {
+        add(position);
+        return true;
+    }
+
+    /**
+     * Add a non-negative position, ascending order is the fast path
+     */
+    public void add(int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position " + position);
+        }
+        char key = (char) (position >>> 16);
+        int index = size > 0 && keys[size - 1] == key ? size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) position);
+    }
+
+    public boolean contains(int position) {
+        if (position < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (position >>> 16));
+        return index >= 0 && containers[index].contains((char) position);
+    }
+
+    /**
+     * Number of positions in the set
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pass every position to sink in ascending order, stops when sink returns false
+     * @return false if the sink stopped the iteration
+     */
+    public boolean forEach(MatchSink sink) {
+        for (int i = 0; i < size; i++) {
+            if (!containers[i].forEach(keys[i] << 16, sink)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int chunk;
+            private int next = advance(0, -1);
+
+            /**
+             * Smallest position after previous, starting the search at chunk index from
+             */
+            private int advance(int from, int previous) {
+                for (chunk = from; chunk < size; chunk++) {
+                    int base = keys[chunk] << 16;
+                    int low = (previous >= base) ? (previous - base) + 1 : 0;
+                    if (low <= 0xFFFF) {
+                        int value = containers[chunk].nextValue(low);
+                        if (value >= 0) {
+                            return base | value;
+                        }
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int value = next;
+                next = advance(chunk, value);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Positions in this set or in other (neither set is modified)
+     */
+    public RoaringMatchSet union(RoaringMatchSet other) {
+        RoaringMatchSet result = new RoaringMatchSet();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendChunk(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || other.keys[j] < keys[i]) {
+                result.appendChunk(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendChunk(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Positions in both this set and other (neither set is modified)
+     */
+    public RoaringMatchSet intersection(RoaringMatchSet other) {
+        RoaringMatchSet result = new RoaringMatchSet();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (other.keys[j] < keys[i]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.appendChunk(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convert every chunk to its smallest container, call once filling is done
+     */
+    public RoaringMatchSet optimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+        return this;
+    }
+
+    /**
+     * Approximate heap size of the stored positions in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + keys.length * 2L + containers.length * 4L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Copy into a MatchSet (an int[] of positions)
+     */
+    public MatchSet toMatchSet() {
+        MatchSet set = new MatchSet((int) Math.min(cardinality(), Integer.MAX_VALUE - 8));
+        forEach(set);
+        return set;
+    }
+
+    /**
+     * Comma-separated positions, the same format Solve returns
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        forEach(position -> {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(position);
+            return true;
+        });
+        return sb.toString();
+    }
+
+    private void insertChunk(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void appendChunk(char key, Container container) {
+        insertChunk(size, key, container);
+    }
+
+    /**
+     * Values of one chunk (the low 16 bits of each position)
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        /**
+         * Smallest value >= from, -1 if there is none
+         */
+        abstract int nextValue(int from);
+
+        abstract boolean forEach(int base, MatchSink sink);
+
+        abstract long[] toWords();
+
+        abstract int numberOfRuns();
+
+        abstract long sizeInBytes();
+
+        abstract Container copy();
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer && other instanceof ArrayContainer
+                    && cardinality() + other.cardinality() <= ArrayContainer.MAX_SIZE) {
+                return ((ArrayContainer) this).merge((ArrayContainer) other);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < words.length; i++) {
+                words[i] |= otherWords[i];
+            }
+            return bitmapOf(words).optimize();
+        }
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other);
+            }
+            if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= otherWords[i];
+            }
+            return bitmapOf(words).optimize();
+        }
+
+        /**
+         * The smallest of array, bitmap and run form for the same values
+         */
+        Container optimize() {
+            int cardinality = cardinality();
+            long arrayBytes = 2L * cardinality;
+            long bitmapBytes = BitmapContainer.WORDS * 8L;
+            long runBytes = 4L * numberOfRuns();
+            if (runBytes < arrayBytes && runBytes < bitmapBytes) {
+                return this instanceof RunContainer ? this : RunContainer.fromWords(toWords());
+            }
+            if (cardinality <= ArrayContainer.MAX_SIZE) {
+                return this instanceof ArrayContainer ? this : ArrayContainer.fromWords(toWords(), cardinality);
+            }
+            return this instanceof BitmapContainer ? this : bitmapOf(toWords());
+        }
+    }
+
+    private static BitmapContainer bitmapOf(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    /**
+     * Runs of consecutive set bits in a 65536-bit bitmap
+     */
+    private static int runsInWords(long[] words) {
+        int runs = 0;
+        long previousTop = 0;
+        for (long word : words) {
+            // A run starts at every set bit whose lower neighbour is clear
+            runs += Long.bitCount(word & ~((word << 1) | previousTop));
+            previousTop = word >>> 63;
+        }
+        return runs;
+    }
+
+    private static final class ArrayContainer extends Container {
+        static final int MAX_SIZE = 4096;
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer fromWords(long[] words, int cardinality) {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        @Override
+        Container add(char value) {
+            int index;
+            if (cardinality == 0 || value > values[cardinality - 1]) {
+                index = cardinality;
+            } else {
+                index = Arrays.binarySearch(values, 0, cardinality, value);
+                if (index >= 0) {
+                    return this;
+                }
+                index = -index - 1;
+            }
+            if (cardinality == MAX_SIZE) {
+                return bitmapOf(toWords()).add(value);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        boolean forEach(int base, MatchSink sink) {
+            for (int i = 0; i < cardinality; i++) {
+                if (!sink.accept(base | values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BitmapContainer.WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            return runs;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16L + 16L + values.length * 2L;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            char[] merged = new char[Math.max(cardinality + other.cardinality, 1)];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < cardinality || j < other.cardinality) {
+                char next;
+                if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    next = values[i++];
+                } else if (i == cardinality || other.values[j] < values[i]) {
+                    next = other.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                merged[count++] = next;
+            }
+            return new ArrayContainer(merged, count);
+        }
+
+        ArrayContainer filter(Container other) {
+            char[] kept = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    kept[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(kept, count);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        static final int WORDS = 65536 / 64;
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = from >>> 6;
+            long word = words[index] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return index * 64 + Long.numberOfTrailingZeros(word);
+                }
+                if (++index == WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+        }
+
+        @Override
+        boolean forEach(int base, MatchSink sink) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    if (!sink.accept(base | (i * 64 + Long.numberOfTrailingZeros(word)))) {
+                        return false;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        int numberOfRuns() {
+            return runsInWords(words);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16L + 16L + WORDS * 8L;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        // starts[i] .. starts[i] + lengths[i] (inclusive) are all set
+        private char[] starts;
+        private char[] lengths;
+        private int runs;
+
+        RunContainer(char[] starts, char[] lengths, int runs) {
+            this.starts = starts;
+            this.lengths = lengths;
+            this.runs = runs;
+        }
+
+        static RunContainer fromWords(long[] words) {
+            int runs = runsInWords(words);
+            char[] starts = new char[Math.max(runs, 1)];
+            char[] lengths = new char[Math.max(runs, 1)];
+            int count = 0;
+            int value = 0;
+            while (value < 65536) {
+                long word = words[value >>> 6] & (-1L << value);
+                if (word == 0) {
+                    value = ((value >>> 6) + 1) * 64;
+                    continue;
+                }
+                int start = (value & ~63) + Long.numberOfTrailingZeros(word);
+                // First clear bit after start
+                int end = start;
+                long inverted = ~words[end >>> 6] & (-1L << end);
+                while (inverted == 0 && (end >>> 6) + 1 < BitmapContainer.WORDS) {
+                    end = ((end >>> 6) + 1) * 64;
+                    inverted = ~words[end >>> 6];
+                }
+                end = inverted == 0 ? 65536 : (end & ~63) + Long.numberOfTrailingZeros(inverted);
+                starts[count] = (char) start;
+                lengths[count] = (char) (end - start - 1);
+                count++;
+                value = end;
+            }
+            return new RunContainer(starts, lengths, count);
+        }
+
+        @Override
+        Container add(char value) {
+            if (runs > 0) {
+                int lastEnd = starts[runs - 1] + lengths[runs - 1];
+                if (value == lastEnd + 1) {
+                    lengths[runs - 1]++;
+                    return this;
+                }
+                if (value <= lastEnd) {
+                    return contains(value) ? this : bitmapOf(toWords()).add(value);
+                }
+            }
+            if (runs == starts.length) {
+                starts = Arrays.copyOf(starts, runs * 2);
+                lengths = Arrays.copyOf(lengths, runs * 2);
+            }
+            starts[runs] = value;
+            lengths[runs] = 0;
+            runs++;
+            return this;
+        }
+
+        /**
+         * Index of the last run starting at or before value, -1 if none
+         */
+        private int runAtOrBefore(int value) {
+            int index = Arrays.binarySearch(starts, 0, runs, (char) value);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        @Override
+        boolean contains(char value) {
+            int index = runAtOrBefore(value);
+            return index >= 0 && value <= starts[index] + lengths[index];
+        }
+
+        @Override
+        int cardinality() {
+            int cardinality = 0;
+            for (int i = 0; i < runs; i++) {
+                cardinality += lengths[i] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = runAtOrBefore(from);
+            if (index >= 0 && from <= starts[index] + lengths[index]) {
+                return from;
+            }
+            return index + 1 < runs ? starts[index + 1] : -1;
+        }
+
+        @Override
+        boolean forEach(int base, MatchSink sink) {
+            for (int i = 0; i < runs; i++) {
+                int end = starts[i] + lengths[i];
+                for (int value = starts[i]; value <= end; value++) {
+                    if (!sink.accept(base | value)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BitmapContainer.WORDS];
+            for (int i = 0; i < runs; i++) {
+                int end = starts[i] + lengths[i];
+                for (int value = starts[i]; value <= end; value++) {
+                    words[value >>> 6] |= 1L << value;
+                }
+            }
+            return words;
+        }
+
+        @Override
+        int numberOfRuns() {
+            return runs;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16L + 2 * (16L + starts.length * 2L);
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(Arrays.copyOf(starts, Math.max(runs, 1)),
+                    Arrays.copyOf(lengths, Math.max(runs, 1)), runs);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Time budget of the search running on the current thread
+ *
+ * The algorithm loops are strip-mined: they run in blocks of blockSpan(m) + 1
+ * windows and call checkpoint() between blocks (a ThreadLocal read and
+ * System.nanoTime() every few thousand windows, nothing in the inner loop,
+ * which stays as tight as before). When no budget is installed the checkpoint does
+ * nothing, so searches outside SearchExecutor are unaffected. When the
+ * deadline has passed or the budget was cancelled, the checkpoint throws
+ * Exceeded, which unwinds the search; the matches already given to the sink
+ * remain valid (a prefix of the full result in search order).
+ *
+ * A search can overrun its deadline by one block, about BLOCK_WORK char
+ * comparisons whatever the pattern length.
+ */
+public final class SearchBudget {
+
+    /**
+     * Positions per block between two checks, a block ends at block + min(last - block, CHECK_MASK)
+     */
+    public static final int CHECK_INTERVAL = 4096;
+    public static final int CHECK_MASK = CHECK_INTERVAL - 1;
+
+    /**
+     * Char comparisons allowed per block, limits the blocks of long patterns
+     */
+    static final int BLOCK_WORK = 1 << 16;
+
+    private static final ThreadLocal<SearchBudget> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    public SearchBudget(long budgetNanos) {
+        this.deadlineNanos = System.nanoTime() + budgetNanos;
+    }
+
+    /**
+     * Thrown by checkpoint() to stop a search that ran out of time
+     * No stack trace: it is control flow, and may be thrown often under load
+     */
+    public static final class Exceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Exceeded() {
+            super("Search time budget exceeded", null, false, false);
+        }
+    }
+
+    /**
+     * Windows per block minus one for a pattern of length m: CHECK_INTERVAL
+     * windows, fewer when m comparisons per window would exceed BLOCK_WORK
+     */
+    public static int blockSpan(int m) {
+        return Math.max(1, Math.min(CHECK_INTERVAL, BLOCK_WORK / Math.max(1, m))) - 1;
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * Stop the search at its next checkpoint, from any thread
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Make budget the current thread's budget
+     * @return The previous budget, to be restored with restore()
+     */
+    static SearchBudget install(SearchBudget budget) {
+        SearchBudget previous = CURRENT.get();
+        CURRENT.set(budget);
+        return previous;
+    }
+
+    static void restore(SearchBudget previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * @throws Exceeded if the current thread's budget is used up
+     */
+    public static void checkpoint() {
+        SearchBudget budget = CURRENT.get();
+        if (budget != null && budget.isExpired()) {
+            throw new Exceeded();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for searches and pre-analysis decisions
+ *
+ * Every search and every chooseAlgorithm call made by the runners goes
+ * through this class, so a recording started with
+ *   java -XX:StartFlightRecording=filename=search.jfr ManualTest
+ * shows them next to GC and safepoint events.
+ *
+ * When no recording is running the events are disabled and begin/end/commit
+ * compile down to nothing. The thresholds below drop very short calls, they
+ * can be changed in a .jfc file (stringmatching.Search#threshold).
+ */
+public final class SearchEvents {
+
+    private SearchEvents() {
+    }
+
+    @Name("stringmatching.Search")
+    @Label("String Search")
+    @Category("String Matching")
+    @Description("One search (findMatches call) of a string matching algorithm")
+    @Threshold("20 us")
+    @StackTrace(false)
+    static class SearchEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Text Length")
+        int textLength;
+
+        @Label("Pattern Length")
+        int patternLength;
+
+        @Label("Match Count")
+        int matchCount;
+    }
+
+    @Name("stringmatching.Selection")
+    @Label("Algorithm Selection")
+    @Category("String Matching")
+    @Description("One PreAnalysis.chooseAlgorithm decision, the event duration is the analysis time")
+    @Threshold("5 us")
+    @StackTrace(false)
+    static class SelectionEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Chosen Algorithm")
+        String chosenAlgorithm;
+
+        @Label("Text Length")
+        int textLength;
+
+        @Label("Pattern Length")
+        int patternLength;
+    }
+
+    /**
+     * Run solution.findMatches and emit a search event for it
+     */
+    public static MatchSet findMatches(Solution solution, String text, String pattern) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        MatchSet result = solution.findMatches(text, pattern);
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = solution.getName();
+            event.textLength = text.length();
+            event.patternLength = pattern.length();
+            event.matchCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Run preAnalysis.chooseAlgorithm and emit a selection event for it
+     */
+    public static String choose(PreAnalysis preAnalysis, String text, String pattern) {
+        SelectionEvent event = new SelectionEvent();
+        event.begin();
+        String chosen = preAnalysis.chooseAlgorithm(text, pattern);
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = preAnalysis.getClass().getSimpleName();
+            event.chosenAlgorithm = chosen;
+            event.textLength = text.length();
+            event.patternLength = pattern.length();
+            event.commit();
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs searches with a per-request time budget
+ *
+ * Every search runs on its own virtual thread (Java 21+, looked up by
+ * reflection so the project still compiles on older JDKs), or on a cached
+ * pool of platform threads when virtual threads are not available. The
+ * search gets a SearchBudget; the built-in algorithms check it between
+ * blocks of SearchBudget.CHECK_INTERVAL windows and stop when it runs out,
+ * and the result is returned as partial.
+ *
+ * Algorithms that never reach a checkpoint (e.g. a subclass implementing only
+ * Solve) cannot be stopped. The caller still gets an answer after the budget
+ * plus GRACE_MILLIS: the search is abandoned, it keeps its thread until it
+ * ends, and the result carries no matches.
+ */
+public final class SearchExecutor implements AutoCloseable {
+
+    static final long GRACE_MILLIS = 50;
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    /**
+     * Outcome of one search
+     */
+    public static final class Result {
+        /** True when the search was stopped before it covered the whole text */
+        public final boolean partial;
+        /** True when the search did not stop in time and was left running, the sink must not be read */
+        public final boolean abandoned;
+        public final long elapsedNanos;
+
+        public Result(boolean partial, boolean abandoned, long elapsedNanos) {
+            this.partial = partial;
+            this.abandoned = abandoned;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * A search that writes its results to a sink it owns
+     */
+    public interface Search {
+        void run();
+    }
+
+    public SearchExecutor() {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "search-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Before Java 21, or preview features disabled on 19/20
+            return null;
+        }
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Run search within budgetMillis and wait for it
+     * The search's sink may be read afterwards unless the result is abandoned
+     */
+    public Result run(Search search, long budgetMillis) {
+        long start = System.nanoTime();
+        SearchBudget budget = new SearchBudget(TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        Future<Boolean> future = executor.submit(() -> {
+            SearchBudget previous = SearchBudget.install(budget);
+            try {
+                search.run();
+                return true;
+            } catch (SearchBudget.Exceeded e) {
+                return false;
+            } finally {
+                SearchBudget.restore(previous);
+            }
+        });
+        try {
+            boolean complete = future.get(budgetMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+            return new Result(!complete, false, System.nanoTime() - start);
+        } catch (TimeoutException e) {
+            budget.cancel();
+            return new Result(true, true, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            budget.cancel();
+            Thread.currentThread().interrupt();
+            return new Result(true, true, System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * All matches found within budgetMillis, check result.partial before trusting completeness
+     */
+    public Result findMatches(Solution algorithm, CharSequence text, String pattern,
+                              long budgetMillis, MatchSet matches) {
+        return run(() -> algorithm.search(text, pattern, matches), budgetMillis);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,287 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Closed-loop load generator for SearchServer
+ *
+ * Registers a generated text, then every client thread sends batches of
+ * search requests back to back (a new batch as soon as the previous response
+ * is complete) for the configured time. The latency of every batch is kept,
+ * so the report shows exact percentiles, not histogram estimates. The first
+ * warmupSeconds are run but not recorded.
+ *
+ * The batches are a fixed pool of 64, so with the server's result cache most
+ * requests would be cache hits. By default they are sent with "cache": false
+ * and every request runs its search; useCache measures the cached path.
+ */
+public final class SearchLoadGenerator {
+
+    static final String TEXT_ID = "loadgen";
+
+    public static class Config {
+        public int threads = 4;
+        public int durationSeconds = 10;
+        public int warmupSeconds = 2;
+        public int batchSize = 16;
+        public int textLength = 64 * 1024;
+        public long seed = 42;
+        public boolean useCache = false;
+    }
+
+    public static class Report {
+        public long batches;
+        public long requests;
+        public long failures;
+        public double seconds;
+        public long[] latencyNanos; // sorted, one per recorded batch
+        public String serverStats;  // GET /stats after the run (cache hit and coalesce rates)
+
+        public double batchesPerSecond() {
+            return batches / seconds;
+        }
+
+        public double requestsPerSecond() {
+            return requests / seconds;
+        }
+
+        /**
+         * Batch latency at quantile q (0..1) in microseconds
+         */
+        public double percentileMicros(double q) {
+            if (latencyNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencyNanos.length - 1, Math.ceil(q * latencyNanos.length) - 1);
+            return latencyNanos[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+    private SearchLoadGenerator() {
+    }
+
+    /**
+     * Run the load against baseUrl (e.g. http://127.0.0.1:8765)
+     */
+    public static Report run(String baseUrl, Config config) throws IOException, InterruptedException {
+        Random random = new Random(config.seed);
+        String text = generateText(random, config.textLength);
+        put(baseUrl + "/texts/" + TEXT_ID, text);
+
+        // A fixed pool of batches, cycled by every thread
+        List<byte[]> bodies = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            bodies.add(batchBody(random, text, config.batchSize, config.useCache));
+        }
+
+        long startNanos = System.nanoTime();
+        long recordFrom = startNanos + config.warmupSeconds * 1_000_000_000L;
+        long endNanos = recordFrom + config.durationSeconds * 1_000_000_000L;
+        Worker[] workers = new Worker[config.threads];
+        Thread[] threads = new Thread[config.threads];
+        for (int t = 0; t < config.threads; t++) {
+            workers[t] = new Worker(baseUrl + "/search", bodies, config.batchSize, t, recordFrom, endNanos);
+            threads[t] = new Thread(workers[t], "loadgen-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Report report = new Report();
+        report.seconds = config.durationSeconds;
+        int total = 0;
+        for (Worker worker : workers) {
+            total += worker.recorded;
+            report.failures += worker.failures;
+        }
+        report.latencyNanos = new long[total];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, report.latencyNanos, offset, worker.recorded);
+            offset += worker.recorded;
+        }
+        Arrays.sort(report.latencyNanos);
+        report.batches = total;
+        report.requests = (long) total * config.batchSize;
+        report.serverStats = get(baseUrl + "/stats");
+        return report;
+    }
+
+    public static void printReport(Report report, Config config) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("LOAD TEST RESULTS");
+        System.out.println("=".repeat(100));
+        System.out.printf("Threads: %d | Batch size: %d | Duration: %d s (+%d s warm-up) | Result cache: %s%n",
+                config.threads, config.batchSize, config.durationSeconds, config.warmupSeconds,
+                config.useCache ? "on" : "bypassed");
+        System.out.printf("Batches:  %,d (%,.0f/s)%n", report.batches, report.batchesPerSecond());
+        System.out.printf("Requests: %,d (%,.0f/s)%n", report.requests, report.requestsPerSecond());
+        if (report.failures > 0) {
+            System.out.printf("Failures: %,d%n", report.failures);
+        }
+        System.out.println("Batch latency (μs):");
+        System.out.printf("  p50 %10.1f | p90 %10.1f | p99 %10.1f | p99.9 %10.1f | max %10.1f%n",
+                report.percentileMicros(0.50), report.percentileMicros(0.90),
+                report.percentileMicros(0.99), report.percentileMicros(0.999),
+                report.percentileMicros(1.0));
+        if (report.serverStats != null) {
+            System.out.println("Server stats: " + report.serverStats);
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        private final URL url;
+        private final List<byte[]> bodies;
+        private final int batchSize;
+        private final long recordFrom;
+        private final long endNanos;
+        private int next;
+        long[] latencies = new long[1024];
+        int recorded;
+        long failures;
+
+        Worker(String url, List<byte[]> bodies, int batchSize, int offset, long recordFrom, long endNanos) {
+            try {
+                this.url = URI.create(url).toURL();
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid URL " + url, e);
+            }
+            this.bodies = bodies;
+            this.batchSize = batchSize;
+            this.next = offset;
+            this.recordFrom = recordFrom;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long start = System.nanoTime();
+                if (start >= endNanos) {
+                    return;
+                }
+                byte[] body = bodies.get(next++ % bodies.size());
+                boolean ok;
+                try {
+                    ok = post(url, body) == batchSize;
+                } catch (IOException e) {
+                    ok = false;
+                }
+                long end = System.nanoTime();
+                if (!ok) {
+                    failures++;
+                } else if (start >= recordFrom && end <= endNanos) {
+                    if (recorded == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, recorded * 2);
+                    }
+                    latencies[recorded++] = end - start;
+                }
+            }
+        }
+    }
+
+    /**
+     * POST a batch and read the whole response
+     * @return Number of successful result lines
+     */
+    private static int post(URL url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int lines = 0;
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.contains("\"error\"")) {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            return in.readLine();
+        }
+    }
+
+    private static void put(String url, String text) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setRequestMethod("PUT");
+        connection.setDoOutput(true);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        connection.setFixedLengthStreamingMode(bytes.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(bytes);
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("Registering text failed: HTTP " + connection.getResponseCode());
+        }
+        connection.getInputStream().close();
+    }
+
+    /**
+     * Natural-language-like text: words over a skewed alphabet, separated by spaces
+     */
+    private static String generateText(Random random, int length) {
+        String alphabet = "eeeetttaaoinshrdlucmfwypvbgkqjxz";
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            int word = 2 + random.nextInt(8);
+            for (int i = 0; i < word && sb.length() < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (sb.length() < length) {
+                sb.append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Mixed batch: mostly patterns taken from the text, some absent ones,
+     * modes weighted towards count/exists as a typical service would see
+     */
+    private static byte[] batchBody(Random random, String text, int batchSize, boolean useCache) {
+        String[] modes = {"all", "count", "count", "exists", "exists", "first", "last"};
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            int m = 2 + random.nextInt(24);
+            String pattern;
+            if (random.nextInt(4) == 0) {
+                pattern = "zq" + text.substring(0, m); // almost certainly absent
+            } else {
+                int start = random.nextInt(text.length() - m);
+                pattern = text.substring(start, start + m);
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"textId\":").append(Json.quote(TEXT_ID))
+                    .append(",\"pattern\":").append(Json.quote(pattern))
+                    .append(",\"mode\":\"").append(modes[random.nextInt(modes.length)]).append("\"")
+                    .append(",\"k\":10")
+                    .append(useCache ? "}" : ",\"cache\":false}");
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
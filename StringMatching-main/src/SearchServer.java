@@ -0,0 +1,659 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running local search service (JDK HttpServer, loopback only)
+ *
+ * One warm JVM serves many clients, so the JIT warm-up and the pre-analysis
+ * are paid once instead of in every process that searches.
+ *
+ * Endpoints:
+ *   PUT    /texts/{id}  register a text (request body, UTF-8), replaces an existing one
+ *   DELETE /texts/{id}  drop a registered text
+ *   POST   /search      batch of requests, a JSON array of
+ *                        {"text": "..." or "textId": "...", "pattern": "...",
+ *                         "mode": "all|count|exists|first|last", "k": 10, "algorithm": "KMP",
+ *                         "timeoutMillis": 100, "cache": false}
+ *   GET    /stats       counters as JSON
+ *
+ * /search answers with one JSON line per request (NDJSON), in request order.
+ * Each line is written and flushed as soon as its request is done, while the
+ * rest of the batch is still being read. Without "algorithm" the request is
+ * routed through the PreAnalysis; for registered texts the decision is cached
+ * per (textId, pattern), so repeated patterns skip the analysis.
+ *
+ * Every search runs on a SearchExecutor with a time budget ("timeoutMillis",
+ * default DEFAULT_TIMEOUT_MILLIS). A search that runs out of time answers
+ * with what it found so far and "partial": true, so one pathological input
+ * delays only its own line.
+ *
+ * Results go through a CoalescingCache keyed by (text, pattern, algorithm,
+ * mode, bounded): identical requests arriving while one is running wait for it
+ * instead of scanning again, and complete results are served from the cache
+ * for RESULT_TTL_MILLIS. Requests with and without a budget never share a
+ * search, so a request without one never gets a partial result. A waiting
+ * request with a budget waits at most its budget plus COALESCE_GRACE_MILLIS,
+ * then answers "partial": true without matches, as if its own search had
+ * been abandoned. "cache": false bypasses both, for benchmarks that must
+ * measure the searches themselves. A registered text is identified by its registration, so
+ * replacing it never serves results of the old content.
+ *
+ * With a ShadowEvaluator set, a sampled fraction of the routed requests is
+ * replayed with every algorithm on a low-priority thread, and /stats reports
+ * the regret of the PreAnalysis choices per input bucket.
+ */
+public final class SearchServer {
+
+    public static final int DEFAULT_PORT = 8765;
+    static final String DEFAULT_ALGORITHM = "GoCrazy";
+    private static final int ROUTE_CACHE_SIZE = 4096;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+    static final long RESULT_TTL_MILLIS = 5000;
+    static final long RESULT_CACHE_BYTES = 64L << 20;
+    /** How much longer than its budget a request waits for an identical search of another request */
+    static final long COALESCE_GRACE_MILLIS = 50;
+
+    enum Mode { ALL, COUNT, EXISTS, FIRST, LAST }
+
+    private final PreAnalysis preAnalysis;
+    private final Map<String, Solution> algorithms = new LinkedHashMap<>();
+    private final Map<String, RegisteredText> texts = new ConcurrentHashMap<>();
+    private final Map<String, Solution> routes;
+    private final CoalescingCache<SearchKey, Outcome> results = new CoalescingCache<>(
+            RESULT_TTL_MILLIS, RESULT_CACHE_BYTES, SearchServer::weigh, outcome -> !outcome.partial);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong routeHits = new AtomicLong();
+    private final AtomicLong routeMisses = new AtomicLong();
+    private final AtomicLong partials = new AtomicLong();
+
+    private SearchExecutor executor;
+    private volatile ShadowEvaluator shadow;
+    private volatile long defaultTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    private HttpServer server;
+    private ExecutorService handlers;
+
+    public SearchServer(PreAnalysis preAnalysis, List<Solution> solutions) {
+        this.preAnalysis = preAnalysis;
+        for (Solution solution : solutions) {
+            algorithms.put(solution.getName(), solution);
+        }
+        // LRU: access-ordered, the least recently used route is dropped when full
+        Map<String, Solution> lru = new LinkedHashMap<String, Solution>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Solution> eldest) {
+                return size() > ROUTE_CACHE_SIZE;
+            }
+        };
+        this.routes = java.util.Collections.synchronizedMap(lru);
+    }
+
+    /**
+     * Bind to 127.0.0.1:port (0 picks a free port) and start serving
+     * @param threads Number of handler threads
+     */
+    public void start(int port, int threads) throws IOException {
+        // Result lines are small writes, without TCP_NODELAY Nagle + delayed ACK add ~40 ms per batch
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        handlers = Executors.newFixedThreadPool(threads);
+        executor = new SearchExecutor();
+        server.setExecutor(handlers);
+        server.createContext("/texts/", this::handleTexts);
+        server.createContext("/search", this::handleSearch);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+            executor.close();
+            server = null;
+        }
+    }
+
+    /**
+     * Time budget of requests without "timeoutMillis", 0 runs them without a budget
+     */
+    public void setDefaultTimeoutMillis(long timeoutMillis) {
+        this.defaultTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Evaluate a sample of the PreAnalysis choices in the background, null to stop
+     */
+    public void setShadowEvaluator(ShadowEvaluator shadow) {
+        this.shadow = shadow;
+    }
+
+    /**
+     * Port actually bound, useful after start(0, ...)
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void registerText(String id, String text) {
+        texts.put(id, new RegisteredText(text));
+        dropRoutes(id);
+    }
+
+    public boolean removeText(String id) {
+        dropRoutes(id);
+        return texts.remove(id) != null;
+    }
+
+    /**
+     * Run every algorithm on generated inputs until the JIT has compiled the hot loops
+     */
+    public void warmUp(int iterations) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        String text = sb.toString();
+        for (int i = 0; i < iterations; i++) {
+            int m = 1 + random.nextInt(16);
+            int start = random.nextInt(text.length() - m);
+            String pattern = text.substring(start, start + m);
+            for (Solution solution : algorithms.values()) {
+                solution.count(text, pattern);
+            }
+            preAnalysis.chooseAlgorithm(text, pattern);
+        }
+    }
+
+    private void handleTexts(HttpExchange exchange) throws IOException {
+        try {
+            String id = exchange.getRequestURI().getPath().substring("/texts/".length());
+            if (id.isEmpty()) {
+                sendJson(exchange, 400, "{\"error\":\"Missing text id\"}");
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            if (method.equals("PUT") || method.equals("POST")) {
+                String text = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                registerText(id, text);
+                sendJson(exchange, 200, "{\"id\":" + Json.quote(id) + ",\"length\":" + text.length() + "}");
+            } else if (method.equals("DELETE")) {
+                boolean removed = removeText(id);
+                sendJson(exchange, removed ? 200 : 404, "{\"id\":" + Json.quote(id) + ",\"removed\":" + removed + "}");
+            } else {
+                sendJson(exchange, 405, "{\"error\":\"Use PUT or DELETE\"}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendJson(exchange, 405, "{\"error\":\"Use POST\"}");
+                return;
+            }
+            batches.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0); // chunked, lines go out as they are ready
+            Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+            int index = 0;
+            try {
+                JsonReader reader = new JsonReader(exchange.getRequestBody());
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String line;
+                    try {
+                        line = execute(index, readRequest(reader));
+                    } catch (IllegalArgumentException e) {
+                        line = errorLine(index, e.getMessage());
+                    }
+                    out.write(line);
+                    out.write('\n');
+                    out.flush();
+                    index++;
+                }
+                reader.endArray();
+            } catch (IOException e) {
+                // Malformed batch: report it in the stream, the status is already sent
+                out.write(errorLine(index, "Malformed request: " + e.getMessage()));
+                out.write('\n');
+            }
+            out.flush();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            sendJson(exchange, 200, "{\"texts\":" + texts.size()
+                    + ",\"batches\":" + batches.get()
+                    + ",\"requests\":" + requests.get()
+                    + ",\"errors\":" + errors.get()
+                    + ",\"partial\":" + partials.get()
+                    + ",\"cacheHits\":" + results.hits()
+                    + ",\"cacheMisses\":" + results.misses()
+                    + ",\"coalesced\":" + results.coalesced()
+                    + ",\"coalesceTimeouts\":" + results.waitTimeouts()
+                    + ",\"hitRate\":" + String.format(java.util.Locale.ROOT, "%.4f", results.hitRate())
+                    + ",\"coalesceRate\":" + String.format(java.util.Locale.ROOT, "%.4f", results.coalesceRate())
+                    + ",\"cacheEntries\":" + results.size()
+                    + ",\"cacheBytes\":" + results.weight()
+                    + ",\"evictions\":" + results.evictions()
+                    + ",\"routes\":" + routes.size()
+                    + ",\"routeHits\":" + routeHits.get()
+                    + ",\"routeMisses\":" + routeMisses.get()
+                    + (shadow != null ? ",\"shadow\":" + shadow.toJson() : "") + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /** JSON type of every known request field */
+    private static final Map<String, JsonReader.Token> FIELD_TYPES = new HashMap<>();
+
+    static {
+        for (String name : new String[]{"text", "textId", "pattern", "algorithm", "mode"}) {
+            FIELD_TYPES.put(name, JsonReader.Token.STRING);
+        }
+        FIELD_TYPES.put("k", JsonReader.Token.NUMBER);
+        FIELD_TYPES.put("timeoutMillis", JsonReader.Token.NUMBER);
+        FIELD_TYPES.put("cache", JsonReader.Token.BOOLEAN);
+    }
+
+    /**
+     * One element of the /search array
+     */
+    static final class Request {
+        String text;
+        String textId;
+        String pattern;
+        String algorithm;
+        Mode mode = Mode.ALL;
+        int k = 1;
+        long timeoutMillis = -1; // -1: the server's default, 0: no budget
+        boolean cache = true;    // false: neither served from nor stored in the result cache, never coalesced
+    }
+
+    /**
+     * A registered text, compared by identity: registering again creates a new one
+     */
+    static final class RegisteredText {
+        final String text;
+
+        RegisteredText(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Identity of a search for the result cache
+     */
+    static final class SearchKey {
+        final Object text; // RegisteredText (identity) or the inline String (content)
+        final String pattern;
+        final String algorithm;
+        final Mode mode;
+        final int k;
+        final boolean bounded; // has a time budget, so its result may be partial
+        private final int hash;
+
+        SearchKey(Object text, String pattern, String algorithm, Mode mode, int k, boolean bounded) {
+            this.text = text;
+            this.pattern = pattern;
+            this.algorithm = algorithm;
+            this.mode = mode;
+            this.k = k;
+            this.bounded = bounded;
+            this.hash = ((((text.hashCode() * 31 + pattern.hashCode()) * 31 + algorithm.hashCode()) * 31
+                    + mode.ordinal()) * 31 + k) * 2 + (bounded ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SearchKey)) {
+                return false;
+            }
+            SearchKey other = (SearchKey) o;
+            return hash == other.hash && k == other.k && mode == other.mode && bounded == other.bounded
+                    && algorithm.equals(other.algorithm) && pattern.equals(other.pattern)
+                    && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Result fields of a line (JSON fragment starting with ','), shared by identical requests
+     */
+    static final class Outcome {
+        final String fields;
+        final boolean partial;
+
+        Outcome(String fields, boolean partial) {
+            this.fields = fields;
+            this.partial = partial;
+        }
+    }
+
+    /**
+     * Estimated bytes kept alive by a cache entry: the strings, plus an inline text
+     */
+    private static long weigh(SearchKey key, Outcome outcome) {
+        long bytes = 96 + 2L * (outcome.fields.length() + key.pattern.length());
+        if (key.text instanceof String) {
+            bytes += 2L * ((String) key.text).length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Read one array element completely, then reject it if it is not a valid request
+     * A wrong type (non-object element, "k":"x", "text":null, ...) is skipped and
+     * reported as IllegalArgumentException, so the next element can still be read;
+     * only malformed JSON (IOException) ends the batch
+     */
+    private static Request readRequest(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            throw new IllegalArgumentException("Request must be a JSON object");
+        }
+        Request request = new Request();
+        String invalid = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonReader.Token expected = FIELD_TYPES.get(name);
+            if (expected == null) {
+                reader.skipValue();
+                continue;
+            }
+            if (reader.peek() != expected) {
+                reader.skipValue();
+                if (invalid == null) {
+                    invalid = "\"" + name + "\" must be a " + expected.name().toLowerCase(java.util.Locale.ROOT);
+                }
+                continue;
+            }
+            switch (name) {
+                case "text": request.text = reader.nextString(); break;
+                case "textId": request.textId = reader.nextString(); break;
+                case "pattern": request.pattern = reader.nextString(); break;
+                case "algorithm": request.algorithm = reader.nextString(); break;
+                case "cache": request.cache = reader.nextBoolean(); break;
+                case "k":
+                case "timeoutMillis":
+                    String number = reader.nextNumber();
+                    long value;
+                    try {
+                        value = Math.max(0, Long.parseLong(number));
+                    } catch (NumberFormatException e) {
+                        if (invalid == null) {
+                            invalid = "\"" + name + "\" must be an integer, was " + number;
+                        }
+                        break;
+                    }
+                    if (name.equals("k")) {
+                        request.k = (int) Math.min(Integer.MAX_VALUE, value);
+                    } else {
+                        request.timeoutMillis = value;
+                    }
+                    break;
+                case "mode":
+                    String mode = reader.nextString();
+                    try {
+                        request.mode = Mode.valueOf(mode.toUpperCase(java.util.Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        request.mode = null;
+                    }
+                    break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (invalid != null) {
+            throw new IllegalArgumentException(invalid);
+        }
+        return request;
+    }
+
+    /**
+     * Run one request and format its result line
+     * @throws IllegalArgumentException for an invalid request
+     */
+    String execute(int index, Request request) {
+        requests.incrementAndGet();
+        if (request.pattern == null) {
+            throw new IllegalArgumentException("Missing pattern");
+        }
+        if (request.mode == null) {
+            throw new IllegalArgumentException("Unknown mode, use all, count, exists, first or last");
+        }
+        if (request.text == null && request.textId == null) {
+            throw new IllegalArgumentException("Missing text or textId");
+        }
+        RegisteredText registered = request.text == null ? texts.get(request.textId) : null;
+        if (request.text == null && registered == null) {
+            throw new IllegalArgumentException("Unknown textId " + request.textId);
+        }
+        String text = registered != null ? registered.text : request.text;
+        Solution algorithm = request.algorithm != null
+                ? algorithms.get(request.algorithm)
+                : route(request.text == null ? request.textId : null, text, request.pattern);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown algorithm " + request.algorithm);
+        }
+
+        String pattern = request.pattern;
+        Mode mode = request.mode;
+        int k = mode == Mode.FIRST ? request.k : 0;
+        long budgetMillis = request.timeoutMillis >= 0 ? request.timeoutMillis : defaultTimeoutMillis;
+        SearchKey key = new SearchKey(registered != null ? registered : text, pattern, algorithm.getName(), mode, k,
+                budgetMillis > 0);
+
+        long start = System.nanoTime();
+        Outcome outcome;
+        if (!request.cache) {
+            outcome = search(algorithm, text, pattern, mode, k, budgetMillis);
+        } else if (budgetMillis > 0) {
+            outcome = results.get(key, () -> search(algorithm, text, pattern, mode, k, budgetMillis),
+                    budgetMillis + COALESCE_GRACE_MILLIS, this::timedOut);
+        } else {
+            outcome = results.get(key, () -> search(algorithm, text, pattern, mode, k, 0));
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        ShadowEvaluator evaluator = shadow;
+        if (evaluator != null && request.algorithm == null) {
+            evaluator.offer(algorithm.getName(), text, pattern);
+        }
+        return "{\"index\":" + index + ",\"algorithm\":" + Json.quote(algorithm.getName())
+                + outcome.fields + ",\"micros\":" + micros + "}";
+    }
+
+    /**
+     * Run one search within its time budget
+     */
+    private Outcome search(Solution algorithm, String text, String pattern, Mode mode, int k, long budgetMillis) {
+        // Results are collected by sinks, so a search stopped by its budget still has its partial result
+        MatchSet matches = new MatchSet();
+        long[] count = new long[1];
+        int[] last = {-1};
+        SearchExecutor.Search search;
+        switch (mode) {
+            case COUNT:
+                search = () -> algorithm.search(text, pattern, position -> {
+                    count[0]++;
+                    return true;
+                });
+                break;
+            case EXISTS:
+                search = () -> algorithm.search(text, pattern, position -> {
+                    count[0]++;
+                    return false;
+                });
+                break;
+            case FIRST:
+                search = () -> {
+                    if (k > 0) {
+                        algorithm.search(text, pattern, position -> {
+                            matches.add(position);
+                            return matches.size() < k;
+                        });
+                    }
+                };
+                break;
+            case LAST:
+                search = () -> algorithm.searchReverse(text, pattern, 0, text.length(), position -> {
+                    last[0] = position;
+                    return false;
+                });
+                break;
+            default:
+                search = () -> algorithm.search(text, pattern, matches);
+        }
+
+        SearchExecutor.Result result = budgetMillis > 0
+                ? executor.run(search, budgetMillis)
+                : runInline(search);
+        StringBuilder fields = new StringBuilder(32);
+        if (!result.abandoned) {
+            switch (mode) {
+                case COUNT:
+                    fields.append(",\"count\":").append(count[0]);
+                    break;
+                case EXISTS:
+                    fields.append(",\"exists\":").append(count[0] > 0);
+                    break;
+                case LAST:
+                    fields.append(",\"position\":").append(last[0]);
+                    break;
+                default:
+                    appendMatches(fields, matches);
+            }
+        }
+        if (result.partial) {
+            partials.incrementAndGet();
+            fields.append(",\"partial\":true");
+        }
+        return new Outcome(fields.toString(), result.partial);
+    }
+
+    /**
+     * Answer of a request that gave up waiting for an identical search: abandoned, like its own search would be
+     */
+    private Outcome timedOut() {
+        partials.incrementAndGet();
+        return new Outcome(",\"partial\":true", true);
+    }
+
+    private static SearchExecutor.Result runInline(SearchExecutor.Search search) {
+        long start = System.nanoTime();
+        search.run();
+        return new SearchExecutor.Result(false, false, System.nanoTime() - start);
+    }
+
+    /**
+     * Algorithm chosen by the PreAnalysis, cached per pattern for registered texts
+     * @param textId Id of a registered text, null for inline texts (never cached)
+     */
+    private Solution route(String textId, String text, String pattern) {
+        String key = textId == null ? null : textId + '\0' + pattern;
+        if (key != null) {
+            Solution cached = routes.get(key);
+            if (cached != null) {
+                routeHits.incrementAndGet();
+                return cached;
+            }
+            routeMisses.incrementAndGet();
+        }
+        String chosen = SearchEvents.choose(preAnalysis, text, pattern);
+        Solution solution = chosen == null ? null : algorithms.get(chosen);
+        if (solution == null) {
+            // null means "run everything" in the comparison tools, here one has to be picked
+            solution = algorithms.get(DEFAULT_ALGORITHM);
+        }
+        if (key != null && solution != null) {
+            routes.put(key, solution);
+        }
+        return solution;
+    }
+
+    private void dropRoutes(String textId) {
+        String prefix = textId + '\0';
+        synchronized (routes) {
+            Iterator<String> keys = routes.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(prefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    private String errorLine(int index, String message) {
+        errors.incrementAndGet();
+        return "{\"index\":" + index + ",\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void appendMatches(StringBuilder line, MatchSet matches) {
+        line.append(",\"count\":").append(matches.size()).append(",\"matches\":[");
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(matches.get(i));
+        }
+        line.append(']');
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
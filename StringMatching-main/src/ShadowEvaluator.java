@@ -0,0 +1,361 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Judges PreAnalysis choices on live traffic (production mode)
+ *
+ * PreAnalysisComparison runs every algorithm on every input, which only works
+ * offline. Here the request runs only the chosen algorithm, and the caller
+ * offers a sampled fraction of requests to this evaluator. A single
+ * low-priority daemon thread then times every algorithm on the same input
+ * (the chosen one included, so all times come from the same conditions) and
+ * adds the regret, the time lost against the fastest algorithm, to the
+ * statistics of the input's bucket.
+ *
+ * The queue is bounded: when the shadow thread cannot keep up, samples are
+ * dropped (and counted) instead of delaying requests or piling up memory.
+ * Every shadow run gets a SearchBudget of SHADOW_BUDGET_MILLIS, so a
+ * pathological input costs the shadow thread at most that per algorithm.
+ *
+ * Buckets follow the loaded PreAnalysisThresholds, so regret lines up with
+ * the rules that made the choice: text length classes split at TINY_TEXT,
+ * SMALL_TEXT and MEDIUM_TEXT, pattern length classes at 1, VERY_SHORT,
+ * SHORT, MEDIUM and LONG, e.g. "n<1K m<=8" with the defaults.
+ */
+public final class ShadowEvaluator implements AutoCloseable {
+
+    static final int QUEUE_CAPACITY = 64;
+    static final int REPEATS = 3;
+    static final long SHADOW_BUDGET_MILLIS = 1000;
+
+    private final List<Solution> algorithms;
+    private final double sampleRate;
+    private final ThreadPoolExecutor pool;
+    private final Map<Integer, BucketStats> buckets = new TreeMap<>(); // by bucket index
+    private final int[] textLimits;    // text class c holds n < textLimits[c]
+    private final String[] textClasses;
+    private final int[] patternLimits; // pattern class c holds m <= patternLimits[c]
+    private final String[] patternClasses;
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evaluated = new AtomicLong();
+
+    /**
+     * Regret statistics of one input bucket
+     */
+    public static final class BucketStats {
+        public final String bucket;
+        public long samples;
+        public long chosenFastest;
+        public long chosenNanos;     // sum over samples
+        public long bestNanos;       // sum over samples
+        public long regretNanos;     // sum of chosen - best
+        public long maxRegretNanos;
+        public final Map<String, Long> fastestCounts = new TreeMap<>();
+
+        BucketStats(String bucket) {
+            this.bucket = bucket;
+        }
+
+        BucketStats copy() {
+            BucketStats copy = new BucketStats(bucket);
+            copy.samples = samples;
+            copy.chosenFastest = chosenFastest;
+            copy.chosenNanos = chosenNanos;
+            copy.bestNanos = bestNanos;
+            copy.regretNanos = regretNanos;
+            copy.maxRegretNanos = maxRegretNanos;
+            copy.fastestCounts.putAll(fastestCounts);
+            return copy;
+        }
+
+        /**
+         * Fraction of samples where the chosen algorithm was the fastest
+         */
+        public double hitRate() {
+            return samples == 0 ? 0 : (double) chosenFastest / samples;
+        }
+
+        /**
+         * Time lost against the fastest algorithm, relative to the fastest time
+         */
+        public double regretRatio() {
+            return bestNanos == 0 ? 0 : (double) regretNanos / bestNanos;
+        }
+
+        public double meanRegretMicros() {
+            return samples == 0 ? 0 : regretNanos / 1000.0 / samples;
+        }
+
+        /**
+         * The algorithm that was fastest most often in this bucket
+         */
+        public String mostOftenFastest() {
+            String best = null;
+            long bestCount = -1;
+            for (Map.Entry<String, Long> entry : fastestCounts.entrySet()) {
+                if (entry.getValue() > bestCount) {
+                    best = entry.getKey();
+                    bestCount = entry.getValue();
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * @param algorithms Algorithms to compare the choices against
+     * @param sampleRate Fraction of offered requests that are evaluated (0..1)
+     */
+    public ShadowEvaluator(List<Solution> algorithms, double sampleRate) {
+        this(algorithms, sampleRate, PreAnalysisThresholds.loadDefault());
+    }
+
+    /**
+     * @param thresholds Cutoffs of the rules, the bucket limits
+     */
+    ShadowEvaluator(List<Solution> algorithms, double sampleRate, PreAnalysisThresholds thresholds) {
+        this.textLimits = new int[] {thresholds.tinyText, thresholds.smallText, thresholds.mediumText};
+        this.textClasses = new String[textLimits.length + 1];
+        for (int c = 0; c < textLimits.length; c++) {
+            textClasses[c] = "n<" + compact(textLimits[c]);
+        }
+        textClasses[textLimits.length] = "n>=" + compact(textLimits[textLimits.length - 1]);
+        this.patternLimits = new int[] {1, thresholds.veryShort, thresholds.shortPattern,
+                thresholds.medium, thresholds.longPattern};
+        this.patternClasses = new String[patternLimits.length + 1];
+        patternClasses[0] = "m=1";
+        for (int c = 1; c < patternLimits.length; c++) {
+            patternClasses[c] = "m<=" + patternLimits[c];
+        }
+        patternClasses[patternLimits.length] = "m>" + patternLimits[patternLimits.length - 1];
+        this.algorithms = new ArrayList<>(algorithms);
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-evaluator");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Called after a request ran the chosen algorithm: maybe queue it for evaluation
+     * @return True if the request was sampled and queued
+     */
+    public boolean offer(String chosen, String text, String pattern) {
+        offered.incrementAndGet();
+        if (chosen == null || sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        sampled.incrementAndGet();
+        try {
+            pool.execute(() -> evaluate(chosen, text, pattern));
+            return true;
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet(); // queue full, or closed
+            return false;
+        }
+    }
+
+    private void evaluate(String chosen, String text, String pattern) {
+        long chosenNanos = -1;
+        long bestNanos = Long.MAX_VALUE;
+        String fastest = null;
+        for (Solution algorithm : algorithms) {
+            long nanos = time(algorithm, text, pattern);
+            if (algorithm.getName().equals(chosen)) {
+                chosenNanos = nanos;
+            }
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                fastest = algorithm.getName();
+            }
+        }
+        if (chosenNanos < 0) {
+            return; // chosen algorithm is not one of ours
+        }
+        int bucket = bucket(text.length(), pattern.length());
+        long regret = chosenNanos - bestNanos;
+        synchronized (buckets) {
+            BucketStats stats = buckets.computeIfAbsent(bucket, index -> new BucketStats(bucketName(index)));
+            stats.samples++;
+            if (regret == 0) {
+                stats.chosenFastest++;
+            }
+            stats.chosenNanos += chosenNanos;
+            stats.bestNanos += bestNanos;
+            stats.regretNanos += regret;
+            stats.maxRegretNanos = Math.max(stats.maxRegretNanos, regret);
+            stats.fastestCounts.merge(fastest, 1L, Long::sum);
+        }
+        evaluated.incrementAndGet();
+    }
+
+    /**
+     * Best of REPEATS runs, an algorithm stopped by the budget counts as the budget
+     */
+    private static long time(Solution algorithm, String text, String pattern) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPEATS; i++) {
+            SearchBudget previous = SearchBudget.install(
+                    new SearchBudget(TimeUnit.MILLISECONDS.toNanos(SHADOW_BUDGET_MILLIS)));
+            long start = System.nanoTime();
+            try {
+                algorithm.count(text, pattern);
+            } catch (SearchBudget.Exceeded e) {
+                return TimeUnit.MILLISECONDS.toNanos(SHADOW_BUDGET_MILLIS);
+            } catch (RuntimeException e) {
+                return TimeUnit.MILLISECONDS.toNanos(SHADOW_BUDGET_MILLIS); // unusable counts as slowest
+            } finally {
+                SearchBudget.restore(previous);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Input bucket of a text/pattern length pair, ordered by text then pattern length
+     */
+    int bucket(int n, int m) {
+        int textClass = 0;
+        while (textClass < textLimits.length && n >= textLimits[textClass]) {
+            textClass++;
+        }
+        int patternClass = 0;
+        while (patternClass < patternLimits.length && m > patternLimits[patternClass]) {
+            patternClass++;
+        }
+        return textClass * patternClasses.length + patternClass;
+    }
+
+    String bucketName(int bucket) {
+        return textClasses[bucket / patternClasses.length] + " " + patternClasses[bucket % patternClasses.length];
+    }
+
+    /**
+     * 1000 -> "1K", 1000000 -> "1M", other values unchanged
+     */
+    private static String compact(int value) {
+        if (value >= 1_000_000 && value % 1_000_000 == 0) {
+            return value / 1_000_000 + "M";
+        }
+        if (value >= 1000 && value % 1000 == 0) {
+            return value / 1000 + "K";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Snapshot of the statistics, one entry per bucket, shortest inputs first
+     */
+    public List<BucketStats> report() {
+        List<BucketStats> snapshot = new ArrayList<>();
+        synchronized (buckets) {
+            for (BucketStats stats : buckets.values()) {
+                snapshot.add(stats.copy());
+            }
+        }
+        return snapshot;
+    }
+
+    public long offered() {
+        return offered.get();
+    }
+
+    public long sampled() {
+        return sampled.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long evaluated() {
+        return evaluated.get();
+    }
+
+    /**
+     * Wait until the queued samples are evaluated
+     * @return False if they were not done within timeoutMillis
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pool.getQueue().size() > 0 || pool.getActiveCount() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Counters and per-bucket regret as a JSON object
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"sampleRate\":").append(sampleRate)
+                .append(",\"offered\":").append(offered.get())
+                .append(",\"sampled\":").append(sampled.get())
+                .append(",\"dropped\":").append(dropped.get())
+                .append(",\"evaluated\":").append(evaluated.get())
+                .append(",\"buckets\":[");
+        boolean first = true;
+        for (BucketStats stats : report()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"bucket\":").append(Json.quote(stats.bucket))
+                    .append(",\"samples\":").append(stats.samples)
+                    .append(",\"chosenFastest\":").append(stats.chosenFastest)
+                    .append(",\"regretNanos\":").append(stats.regretNanos)
+                    .append(",\"maxRegretNanos\":").append(stats.maxRegretNanos)
+                    .append(",\"regretRatio\":").append(String.format(java.util.Locale.ROOT, "%.4f", stats.regretRatio()))
+                    .append(",\"mostOftenFastest\":").append(Json.quote(stats.mostOftenFastest()))
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    public void printReport() {
+        System.out.println("\n" + "=".repeat(110));
+        System.out.println("SHADOW EVALUATION OF PRE-ANALYSIS CHOICES");
+        System.out.println("=".repeat(110));
+        System.out.printf("Sample rate: %.1f%% | Offered: %d | Sampled: %d | Evaluated: %d | Dropped: %d%n",
+                sampleRate * 100, offered.get(), sampled.get(), evaluated.get(), dropped.get());
+        System.out.println("-".repeat(110));
+        System.out.printf("%-16s | %8s | %9s | %14s | %14s | %10s | %-16s%n",
+                "Bucket", "Samples", "Fastest%", "Mean regret μs", "Max regret μs", "Regret %", "Most often best");
+        System.out.println("-".repeat(110));
+        for (BucketStats stats : report()) {
+            System.out.printf("%-16s | %8d | %8.1f%% | %14.2f | %14.2f | %9.1f%% | %-16s%n",
+                    stats.bucket, stats.samples, stats.hitRate() * 100, stats.meanRegretMicros(),
+                    stats.maxRegretNanos / 1000.0, stats.regretRatio() * 100, stats.mostOftenFastest());
+        }
+        System.out.println("=".repeat(110));
+        System.out.println("Regret: time of the chosen algorithm minus the fastest one, measured on the shadow thread.");
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
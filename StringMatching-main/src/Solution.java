@@ -1,11 +1,7 @@
-import java.util.HashSet;
-import java.util.Set;
 import java.util.List;
 import java.util.ArrayList;
 
 public abstract class Solution {
-    static final Set<Class<? extends Solution>> SUBCLASSES = new HashSet<>();
-
     public Solution(){
         // Constructor
     }
@@ -18,6 +14,161 @@ public abstract class Solution {
      */
     public abstract String Solve(String text, String pattern);
 
+    /**
+     * Match positions in ascending order, without building the comma-separated String
+     * The default parses Solve's result, algorithms that collect positions directly
+     * override this and implement Solve as findMatches(text, pattern).toString()
+     * @param text The text to search in, a String or any CharSequence (see TextView
+     *             for char[], Latin-1 byte[] and ByteBuffer texts)
+     * @param pattern The pattern to search for
+     * @return Positions where pattern is found
+     */
+    public MatchSet findMatches(CharSequence text, String pattern) {
+        // Solve only takes Strings, non-String texts are copied once here
+        return MatchSet.parse(Solve(text.toString(), pattern));
+    }
+
+    /**
+     * Report match positions to sink in ascending order, stopping when it returns false
+     * @param text The text to search in
+     * @param pattern The pattern to search for
+     * @param sink Receives each position, e.g. a MatchSet or a RoaringMatchSet
+     */
+    public void search(CharSequence text, String pattern, MatchSink sink) {
+        search(text, pattern, 0, text.length(), sink);
+    }
+
+    /**
+     * Like search, but only reports matches lying entirely within text[from, to)
+     * Positions stay absolute (indices into text, not into the range)
+     * The default filters findMatches, algorithms override this with their search loop
+     * @throws IndexOutOfBoundsException if the range is not within text
+     */
+    public void search(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        MatchSet matches = findMatches(text, pattern);
+        for (int i = 0; i < matches.size(); i++) {
+            int position = matches.get(i);
+            if (position + pattern.length() > to) {
+                return;
+            }
+            if (position >= from && !sink.accept(position)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Report matches within text[from, to) from right to left (descending positions)
+     * The default checks every position, algorithms override this with mirrored tables
+     * built from the reversed pattern
+     * @throws IndexOutOfBoundsException if the range is not within text
+     */
+    public void searchReverse(CharSequence text, String pattern, int from, int to, MatchSink sink) {
+        checkRange(text, from, to);
+        int span = SearchBudget.blockSpan(pattern.length());
+        for (int block = to - pattern.length(); block >= from; block -= span + 1) {
+            SearchBudget.checkpoint();
+            int blockEnd = block - Math.min(block - from, span);
+            for (int pos = block; pos >= blockEnd; pos--) {
+                if (matchesAt(text, pattern, pos) && !sink.accept(pos)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * True if pattern occurs in text, the search stops at the first match
+     */
+    public boolean exists(CharSequence text, String pattern) {
+        boolean[] found = new boolean[1];
+        search(text, pattern, position -> {
+            found[0] = true;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * Number of occurrences, positions are counted but not stored
+     */
+    public long count(CharSequence text, String pattern) {
+        long[] count = new long[1];
+        search(text, pattern, position -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * The first k occurrences, the search stops once k are found
+     */
+    public MatchSet firstK(CharSequence text, String pattern, int k) {
+        MatchSet matches = new MatchSet(Math.min(k, 16));
+        if (k <= 0) {
+            return matches;
+        }
+        search(text, pattern, position -> {
+            matches.add(position);
+            return matches.size() < k;
+        });
+        return matches;
+    }
+
+    /**
+     * Index of the last occurrence, or -1, found by searchReverse from the end of the text
+     */
+    public int lastOccurrence(CharSequence text, String pattern) {
+        int[] last = {-1};
+        searchReverse(text, pattern, 0, text.length(), position -> {
+            last[0] = position;
+            return false;
+        });
+        return last[0];
+    }
+
+    /**
+     * Report every position from..to, the matches of an empty pattern in [from, to)
+     */
+    protected void reportAllPositions(int from, int to, MatchSink sink) {
+        for (int block = from; block >= from && block <= to; block += SearchBudget.CHECK_INTERVAL) {
+            SearchBudget.checkpoint();
+            int blockEnd = block + Math.min(to - block, SearchBudget.CHECK_MASK);
+            for (int i = block; i <= blockEnd; i++) {
+                if (!sink.accept(i)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Report every position to..from in descending order
+     */
+    protected void reportAllPositionsReverse(int from, int to, MatchSink sink) {
+        for (int block = to; block >= from; block -= SearchBudget.CHECK_INTERVAL) {
+            SearchBudget.checkpoint();
+            int blockEnd = block - Math.min(block - from, SearchBudget.CHECK_MASK);
+            for (int i = block; i >= blockEnd; i--) {
+                if (!sink.accept(i)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that [from, to) is a valid range of text
+     */
+    protected static void checkRange(CharSequence text, int from, int to) {
+        if (from < 0 || to > text.length() || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of text with length "
+                    + text.length());
+        }
+    }
+
     /**
      * Helper method to convert list of indices to comma-separated string
      * @param indices List of indices where pattern was found
@@ -44,7 +195,7 @@ public abstract class Solution {
      * @param pos The position in text to check
      * @return true if pattern matches at position pos
      */
-    protected boolean matchesAt(String text, String pattern, int pos) {
+    protected boolean matchesAt(CharSequence text, String pattern, int pos) {
         if (pos + pattern.length() > text.length()) {
             return false;
         }
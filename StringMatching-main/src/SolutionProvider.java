@@ -0,0 +1,19 @@
+import java.util.List;
+
+/**
+ * Source of algorithms for the AlgorithmRegistry, found with java.util.ServiceLoader
+ *
+ * To add algorithms without touching this project, implement this interface
+ * (public class, public no-arg constructor) and list the class name in
+ * META-INF/services/SolutionProvider on the classpath.
+ *
+ * The returned instances are shared by all callers and threads, so they must
+ * be stateless (all built-in algorithms keep their state in local variables).
+ */
+public interface SolutionProvider {
+
+    /**
+     * The algorithms of this provider, in the order they should be listed
+     */
+    List<Solution> solutions();
+}
@@ -1,13 +1,30 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
 /**
  * Represents a test case for string matching algorithms.
  * Test cases are now loaded from JSON files in the testcases/ directory.
  * See TestCaseLoader.java for loading test cases from files.
+ *
+ * The text and pattern are either inline strings or a MappedCorpus.Slice of an
+ * external file. A slice is decoded on every getText()/getPattern() call, and
+ * the decoded string is held by neither the test case nor the corpus, so
+ * runners fetch them once per test, outside their timed regions. Lengths and
+ * previews (for listings) do not decode the whole slice.
+ *
+ * A very long expected result is not kept in memory either: the loader only
+ * records where it is in the JSON file, MatchVerifier streams it from there.
  */
 public class TestCase {
     private String name;
     private String text;
     private String pattern;
     private String expectedResult;
+    private MappedCorpus.Slice textSource;
+    private MappedCorpus.Slice patternSource;
+    private Path expectedFile;
+    private long expectedOffset;
     
     public TestCase(String name, String text, String pattern, String expectedResult) {
         this.name = name;
@@ -15,21 +32,89 @@ public class TestCase {
         this.pattern = pattern;
         this.expectedResult = expectedResult;
     }
+
+    /**
+     * Test case whose text and/or pattern come from a corpus file
+     * A null source means the inline value is used
+     * A null expectedResult means it is read from expectedFile at expectedOffset
+     */
+    public TestCase(String name, String text, MappedCorpus.Slice textSource,
+                    String pattern, MappedCorpus.Slice patternSource,
+                    String expectedResult, Path expectedFile, long expectedOffset) {
+        this(name, text, pattern, expectedResult);
+        this.textSource = textSource;
+        this.patternSource = patternSource;
+        if (expectedResult == null) {
+            this.expectedFile = expectedFile;
+            this.expectedOffset = expectedOffset;
+        }
+    }
     
     public String getName() {
         return name;
     }
     
     public String getText() {
-        return text;
+        return textSource != null ? textSource.load() : text;
     }
     
     public String getPattern() {
-        return pattern;
+        return patternSource != null ? patternSource.load() : pattern;
+    }
+
+    public int getTextLength() {
+        return textSource != null ? textSource.charLength() : text.length();
+    }
+
+    public int getPatternLength() {
+        return patternSource != null ? patternSource.charLength() : pattern.length();
+    }
+
+    /**
+     * At most the first maxChars chars of the text
+     */
+    public String getTextPreview(int maxChars) {
+        return textSource != null ? textSource.preview(maxChars) : prefix(text, maxChars);
+    }
+
+    /**
+     * At most the first maxChars chars of the pattern
+     */
+    public String getPatternPreview(int maxChars) {
+        return patternSource != null ? patternSource.preview(maxChars) : prefix(pattern, maxChars);
+    }
+
+    private static String prefix(String s, int maxChars) {
+        return s.length() > maxChars ? s.substring(0, maxChars) : s;
     }
     
+    /**
+     * Expected result as one String
+     * Prefer MatchVerifier for checking results, this reads a long result from the file every time
+     */
     public String getExpectedResult() {
-        return expectedResult;
+        if (expectedResult != null) {
+            return expectedResult;
+        }
+        try (JsonReader reader = new JsonReader(MatchVerifier.openAt(expectedFile, expectedOffset))) {
+            return reader.nextString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read expected result from " + expectedFile, e);
+        }
+    }
+
+    /**
+     * JSON file holding the expected result, null if it is kept inline
+     */
+    Path getExpectedFile() {
+        return expectedFile;
+    }
+
+    /**
+     * Byte offset of the expected result value in getExpectedFile()
+     */
+    long getExpectedOffset() {
+        return expectedOffset;
     }
     
 
@@ -37,7 +122,7 @@ public class TestCase {
     @Override
     public String toString() {
         return String.format("TestCase{name='%s', textLen=%d, patternLen=%d}", 
-                           name, text.length(), pattern.length());
+                           name, getTextLength(), getPatternLength());
     }
 }
 
@@ -1,12 +1,17 @@
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,6 +23,11 @@ public class TestCaseLoader {
     private static final String TESTCASES_DIR = "testcases";
     private static final String SHARED_DIR = "shared";
     private static final String HIDDEN_DIR = "hidden";
+
+    // Longer expected results stay in the file and are streamed by MatchVerifier
+    private static final int INLINE_EXPECTED_LIMIT = 64 * 1024;
+
+    private static final Queue<LoadTime> LOAD_TIMES = new ConcurrentLinkedQueue<>();
     
     /**
      * Load all test cases from both shared and hidden directories
@@ -49,12 +59,7 @@ public class TestCaseLoader {
     public static List<TestCase> loadTestCasesFromDirectory(String subDir) {
         List<TestCase> testCases = new ArrayList<>();
 
-        // Try multiple possible paths (for running from different directories)
-        Path dirPath = Paths.get(TESTCASES_DIR, subDir);
-        if (!Files.exists(dirPath)) {
-            dirPath = Paths.get("..", TESTCASES_DIR, subDir);
-        }
-
+        Path dirPath = resolveDirectory(subDir);
         if (!Files.exists(dirPath)) {
             System.err.println("Warning: Directory does not exist: " + TESTCASES_DIR + "/" + subDir);
             System.err.println("         Tried: " + Paths.get(TESTCASES_DIR, subDir).toAbsolutePath());
@@ -62,103 +67,214 @@ public class TestCaseLoader {
             return testCases;
         }
         
+        List<Path> jsonFiles;
         try (Stream<Path> paths = Files.walk(dirPath, 1)) {
-            List<Path> jsonFiles = paths
+            jsonFiles = paths
                 .filter(Files::isRegularFile)
                 .filter(p -> p.toString().endsWith(".json"))
                 .sorted()
                 .collect(Collectors.toList());
-            
+        } catch (IOException e) {
+            System.err.println("Error reading directory " + dirPath + ": " + e.getMessage());
+            return testCases;
+        }
+
+        // Parse files in parallel, keep the sorted order for the result
+        int threads = Math.max(1, Math.min(jsonFiles.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "testcase-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<TestCase>> futures = new ArrayList<>();
             for (Path jsonFile : jsonFiles) {
+                futures.add(pool.submit(() -> loadTestCaseFromFile(jsonFile)));
+            }
+            for (int i = 0; i < jsonFiles.size(); i++) {
                 try {
-                    TestCase testCase = loadTestCaseFromFile(jsonFile);
-                    testCases.add(testCase);
-                } catch (Exception e) {
-                    System.err.println("Error loading test case from " + jsonFile + ": " + e.getMessage());
+                    testCases.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    System.err.println("Error loading test case from " + jsonFiles.get(i) + ": "
+                            + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error reading directory " + dirPath + ": " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
         }
-        
+
         return testCases;
     }
-    
+
+    /**
+     * Path of a testcases sub directory, it may not exist yet
+     * Tries multiple possible paths (for running from different directories)
+     */
+    static Path resolveDirectory(String subDir) {
+        Path dirPath = Paths.get(TESTCASES_DIR, subDir);
+        if (!Files.exists(dirPath) && Files.exists(Paths.get("..", TESTCASES_DIR))) {
+            dirPath = Paths.get("..", TESTCASES_DIR, subDir);
+        }
+        return dirPath;
+    }
+
     /**
      * Load a single test case from a JSON file
+     * The file is parsed as a stream, it is never read into memory as a whole
      */
     public static TestCase loadTestCaseFromFile(Path filePath) throws IOException {
-        // Java 8 compatible file reading
-        byte[] encoded = Files.readAllBytes(filePath);
-        String content = new String(encoded, StandardCharsets.UTF_8);
-        return parseJsonTestCase(content, filePath.getFileName().toString());
+        long start = System.nanoTime();
+        TestCase testCase;
+        try (JsonReader reader = new JsonReader(Files.newInputStream(filePath), Files.size(filePath))) {
+            testCase = parseJsonTestCase(reader, filePath);
+        }
+        LOAD_TIMES.add(new LoadTime(filePath, Files.size(filePath), System.nanoTime() - start));
+        return testCase;
     }
-    
+
     /**
-     * Parse JSON content into a TestCase object
-     * Simple JSON parser without external dependencies
+     * Parse one JSON object into a TestCase object
+     * Unknown fields are skipped
+     *
+     * Instead of an inline "text"/"pattern", a test case can reference a UTF-8 file
+     * with "textFile"/"patternFile" (relative to the JSON file's directory) and an
+     * optional byte range "textOffset"/"textLength" ("patternOffset"/"patternLength").
+     * The file is memory-mapped on first use and shared by all test cases using it.
      */
-    private static TestCase parseJsonTestCase(String json, String filename) {
-        // Remove whitespace and braces
-        json = json.trim();
-        if (json.startsWith("{")) {
-            json = json.substring(1);
-        }
-        if (json.endsWith("}")) {
-            json = json.substring(0, json.length() - 1);
-        }
-        
+    private static TestCase parseJsonTestCase(JsonReader reader, Path filePath) throws IOException {
+        String filename = filePath.getFileName().toString();
         String name = null;
         String text = null;
         String pattern = null;
         String expected = null;
-        
-        // Split by lines and parse each field
-        String[] lines = json.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || line.equals(",")) {
-                continue;
-            }
-            
-            // Remove trailing comma
-            if (line.endsWith(",")) {
-                line = line.substring(0, line.length() - 1);
-            }
-            
-            if (line.contains(":")) {
-                String[] parts = line.split(":", 2);
-                String key = parts[0].trim().replace("\"", "");
-                String value = parts[1].trim();
-                
-                // Remove quotes from value
-                if (value.startsWith("\"") && value.endsWith("\"")) {
-                    value = value.substring(1, value.length() - 1);
-                }
-                
-                switch (key) {
-                    case "name":
-                        name = value;
-                        break;
-                    case "text":
-                        text = value;
-                        break;
-                    case "pattern":
-                        pattern = value;
-                        break;
-                    case "expected":
-                        expected = value;
-                        break;
-                }
+        long expectedOffset = -1;
+        String textFile = null;
+        String patternFile = null;
+        long textOffset = 0;
+        long textLength = -1;
+        long patternOffset = 0;
+        long patternLength = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (key) {
+                case "name":
+                    name = reader.nextString();
+                    break;
+                case "text":
+                    text = reader.nextString();
+                    break;
+                case "pattern":
+                    pattern = reader.nextString();
+                    break;
+                case "expected":
+                    expectedOffset = reader.position();
+                    expected = reader.nextString(INLINE_EXPECTED_LIMIT);
+                    break;
+                case "textFile":
+                    textFile = reader.nextString();
+                    break;
+                case "textOffset":
+                    textOffset = reader.nextLong();
+                    break;
+                case "textLength":
+                    textLength = reader.nextLong();
+                    break;
+                case "patternFile":
+                    patternFile = reader.nextString();
+                    break;
+                case "patternOffset":
+                    patternOffset = reader.nextLong();
+                    break;
+                case "patternLength":
+                    patternLength = reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
             }
         }
-        
-        if (name == null || text == null || pattern == null || expected == null) {
+        reader.endObject();
+
+        if (name == null || (text == null && textFile == null) || (pattern == null && patternFile == null)
+                || expectedOffset < 0) {
             throw new IllegalArgumentException("Invalid JSON format in " + filename + 
-                ". Required fields: name, text, pattern, expected");
+                ". Required fields: name, text (or textFile), pattern (or patternFile), expected");
         }
-        
-        return new TestCase(name, text, pattern, expected);
+
+        if (textFile == null && patternFile == null && expected != null) {
+            return new TestCase(name, text, pattern, expected);
+        }
+        Path baseDir = filePath.toAbsolutePath().getParent();
+        MappedCorpus.Slice textSource = textFile == null ? null
+                : corpusSlice(baseDir, textFile, textOffset, textLength, filename);
+        MappedCorpus.Slice patternSource = patternFile == null ? null
+                : corpusSlice(baseDir, patternFile, patternOffset, patternLength, filename);
+        return new TestCase(name, text, textSource, pattern, patternSource,
+                expected, filePath.toAbsolutePath(), expectedOffset);
+    }
+
+    /**
+     * Check a corpus reference at load time, the file itself is mapped lazily
+     */
+    private static MappedCorpus.Slice corpusSlice(Path baseDir, String file, long offset, long length,
+                                                  String filename) throws IOException {
+        Path path = baseDir.resolve(file).normalize();
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("Corpus file " + file + " referenced by " + filename + " not found: " + path);
+        }
+        long size = Files.size(path);
+        if (offset < 0 || offset > size || (length >= 0 && offset + length > size)) {
+            throw new IOException("Byte range " + offset + "+" + length + " in " + filename
+                    + " is outside " + file + " (" + size + " bytes)");
+        }
+        return new MappedCorpus.Slice(path, offset, length);
+    }
+
+    /**
+     * Time spent loading one test case file
+     */
+    static class LoadTime {
+        final Path file;
+        final long bytes;
+        final long nanos;
+
+        LoadTime(Path file, long bytes, long nanos) {
+            this.file = file;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Load times of every file loaded so far (in completion order)
+     */
+    static List<LoadTime> getLoadTimes() {
+        return new ArrayList<>(LOAD_TIMES);
+    }
+
+    /**
+     * Print the load time of every file loaded so far
+     */
+    public static void printLoadTimes() {
+        List<LoadTime> times = getLoadTimes();
+        times.sort(Comparator.comparing(t -> t.file.toString()));
+        long totalNanos = 0;
+        long totalBytes = 0;
+        System.out.println("Test Case Load Times:");
+        for (LoadTime time : times) {
+            double mbPerSecond = time.nanos > 0 ? (time.bytes / 1e6) / (time.nanos / 1e9) : 0;
+            System.out.printf("  %-40s %12d bytes %10.3f ms %10.1f MB/s%n",
+                    time.file.getFileName(), time.bytes, time.nanos / 1e6, mbPerSecond);
+            totalNanos += time.nanos;
+            totalBytes += time.bytes;
+        }
+        System.out.printf("  %-40s %12d bytes %10.3f ms (summed over loader threads)%n",
+                "TOTAL (" + times.size() + " files)", totalBytes, totalNanos / 1e6);
+        System.out.println();
     }
     
     /**
@@ -1,4 +1,3 @@
-import java.lang.reflect.Constructor;
 import java.util.*;
 
 /**
@@ -13,7 +12,7 @@ public class TestRunner {
         String algorithmName;
         String testCaseName;
         boolean success;
-        String result;
+        MatchSet result;
         long executionTimeNanos;
         String errorMessage;
         
@@ -31,7 +30,7 @@ public class TestRunner {
         long analysisTimeNanos;
         long algorithmExecutionTimeNanos;
         boolean success;
-        String result;
+        MatchSet result;
         
         // For comparison: what if we had used a different algorithm?
         Map<String, Long> alternativeExecutionTimes = new HashMap<>();
@@ -42,11 +41,11 @@ public class TestRunner {
      */
     public static List<TestResult> runAllTests(List<TestCase> testCases) {
         List<TestResult> results = new ArrayList<>();
-        Set<Class<? extends Solution>> algorithms = Solution.SUBCLASSES;
+        List<Solution> algorithms = AlgorithmRegistry.all();
         
         for (TestCase testCase : testCases) {
-            for (Class<? extends Solution> algorithmClass : algorithms) {
-                TestResult result = runSingleTest(algorithmClass, testCase);
+            for (Solution solution : algorithms) {
+                TestResult result = runSingleTest(solution, testCase);
                 results.add(result);
             }
         }
@@ -57,20 +56,20 @@ public class TestRunner {
     /**
      * Run a single algorithm on a single test case
      */
-    private static TestResult runSingleTest(Class<? extends Solution> algorithmClass, TestCase testCase) {
-        TestResult result = new TestResult(algorithmClass.getSimpleName(), testCase.getName());
+    private static TestResult runSingleTest(Solution solution, TestCase testCase) {
+        TestResult result = new TestResult(solution.getName(), testCase.getName());
         
         try {
-            Constructor<? extends Solution> constructor = algorithmClass.getDeclaredConstructor();
-            Solution solution = constructor.newInstance();
-            
+            // Decoded before the timed run (a corpus slice is decoded on every getText())
+            String text = testCase.getText();
+            String pattern = testCase.getPattern();
             long startTime = System.nanoTime();
-            String output = solution.Solve(testCase.getText(), testCase.getPattern());
+            MatchSet output = SearchEvents.findMatches(solution, text, pattern);
             long endTime = System.nanoTime();
             
             result.executionTimeNanos = endTime - startTime;
             result.result = output;
-            result.success = output.equals(testCase.getExpectedResult());
+            result.success = MatchVerifier.matches(output, testCase);
             
         } catch (UnsupportedOperationException e) {
             result.success = false;
@@ -88,10 +87,13 @@ public class TestRunner {
      */
     public static PreAnalysisResult runWithPreAnalysis(PreAnalysis preAnalysis, TestCase testCase) {
         PreAnalysisResult result = new PreAnalysisResult();
+        // Decoded once, outside the timed runs (a corpus slice is decoded on every getText())
+        String text = testCase.getText();
+        String pattern = testCase.getPattern();
         
         // Run pre-analysis
         long analysisStart = System.nanoTime();
-        String chosenAlgorithm = preAnalysis.chooseAlgorithm(testCase.getText(), testCase.getPattern());
+        String chosenAlgorithm = SearchEvents.choose(preAnalysis, text, pattern);
         long analysisEnd = System.nanoTime();
         
         result.analysisTimeNanos = analysisEnd - analysisStart;
@@ -104,23 +106,22 @@ public class TestRunner {
         
         // Execute the chosen algorithm
         try {
-            Solution solution = createSolutionByName(chosenAlgorithm);
+            Solution solution = AlgorithmRegistry.get(chosenAlgorithm);
             long execStart = System.nanoTime();
-            String output = solution.Solve(testCase.getText(), testCase.getPattern());
+            MatchSet output = SearchEvents.findMatches(solution, text, pattern);
             long execEnd = System.nanoTime();
             
             result.algorithmExecutionTimeNanos = execEnd - execStart;
             result.result = output;
-            result.success = output.equals(testCase.getExpectedResult());
+            result.success = MatchVerifier.matches(output, testCase);
             
             // Also run other algorithms for comparison
-            for (Class<? extends Solution> algorithmClass : Solution.SUBCLASSES) {
-                String algName = algorithmClass.getSimpleName();
+            for (Solution altSolution : AlgorithmRegistry.all()) {
+                String algName = altSolution.getName();
                 if (!algName.equals(chosenAlgorithm)) {
                     try {
-                        Solution altSolution = algorithmClass.getDeclaredConstructor().newInstance();
                         long altStart = System.nanoTime();
-                        altSolution.Solve(testCase.getText(), testCase.getPattern());
+                        SearchEvents.findMatches(altSolution, text, pattern);
                         long altEnd = System.nanoTime();
                         result.alternativeExecutionTimes.put(algName, altEnd - altStart);
                     } catch (Exception e) {
@@ -136,18 +137,6 @@ public class TestRunner {
         return result;
     }
     
-    /**
-     * Create a solution instance by algorithm name
-     */
-    private static Solution createSolutionByName(String name) throws Exception {
-        for (Class<? extends Solution> algorithmClass : Solution.SUBCLASSES) {
-            if (algorithmClass.getSimpleName().equals(name)) {
-                return algorithmClass.getDeclaredConstructor().newInstance();
-            }
-        }
-        throw new IllegalArgumentException("Algorithm not found: " + name);
-    }
-    
     /**
      * Generate a comparison table showing which algorithms solved which test cases
      */
@@ -161,9 +150,9 @@ public class TestRunner {
             testCaseNames.add(result.testCaseName);
         }
         
-        System.out.println("\n" + repeat("=", 100));
+        System.out.println("\n" + "=".repeat(100));
         System.out.println("ALGORITHM COMPARISON TABLE - Which algorithms solved which test cases");
-        System.out.println(repeat("=", 100));
+        System.out.println("=".repeat(100));
         
         // Print header
         System.out.printf("%-30s", "Test Case");
@@ -171,7 +160,7 @@ public class TestRunner {
             System.out.printf("%-15s", algName);
         }
         System.out.println();
-        System.out.println(repeat("-", 100));
+        System.out.println("-".repeat(100));
         
         // Print results for each test case
         for (String testCaseName : testCaseNames) {
@@ -194,7 +183,7 @@ public class TestRunner {
             System.out.println();
         }
         
-        System.out.println(repeat("=", 100));
+        System.out.println("=".repeat(100));
         
         // Print summary statistics
         printSummaryStatistics(results, algorithmNames);
@@ -205,7 +194,7 @@ public class TestRunner {
      */
     private static void printSummaryStatistics(List<TestResult> results, Set<String> algorithmNames) {
         System.out.println("\nSUMMARY STATISTICS:");
-        System.out.println(repeat("-", 100));
+        System.out.println("-".repeat(100));
         
         for (String algName : algorithmNames) {
             int passed = 0;
@@ -240,17 +229,7 @@ public class TestRunner {
             System.out.println();
         }
         
-        System.out.println(repeat("=", 100));
-    }
-    
-    // Java 8 compatible repeat helper
-    private static String repeat(String str, int count) {
-        if (count <= 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(str);
-        }
-        return sb.toString();
+        System.out.println("=".repeat(100));
     }
     
     /**
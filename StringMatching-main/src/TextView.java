@@ -0,0 +1,151 @@
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CharSequence view over a char[], a Latin-1 byte[], a ByteBuffer or any other CharSequence
+ *
+ * Text in these arrays/buffers can be wrapped instead of being copied into a
+ * String first. Wrapping never copies; the caller must not modify the
+ * array/buffer/sequence while a search runs.
+ *
+ * All kinds of storage share this one final class on purpose: when every
+ * text is a String or a TextView, the charAt call in a search loop only ever
+ * sees those two classes, which the JIT inlines (a call site seeing 3+
+ * classes is megamorphic, every charAt becomes a virtual call and KMP runs
+ * about 3x slower). Inside charAt the storage check is a well-predicted branch.
+ * The algorithms accept any CharSequence, but a StringBuilder or CharBuffer
+ * passed directly is a third class at those call sites and makes them
+ * megamorphic for the rest of the run; wrap it with TextView.of(CharSequence)
+ * instead (heap CharBuffers are then read through their array, the others
+ * through their own charAt, at one class per adapter call site).
+ */
+public final class TextView implements CharSequence {
+
+    private final byte[] bytes;            // Latin-1 bytes, or null
+    private final char[] chars;            // UTF-16 chars, or null
+    private final ByteBuffer buffer;       // direct/mapped buffer read as Latin-1, or null
+    private final CharSequence sequence;   // any other CharSequence, or null
+    private final int offset;
+    private final int length;
+
+    private TextView(byte[] bytes, char[] chars, ByteBuffer buffer, CharSequence sequence, int offset, int length) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.buffer = buffer;
+        this.sequence = sequence;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static TextView of(char[] chars) {
+        return of(chars, 0, chars.length);
+    }
+
+    public static TextView of(char[] chars, int offset, int length) {
+        checkBounds(chars.length, offset, length);
+        return new TextView(null, chars, null, null, offset, length);
+    }
+
+    /**
+     * View of any CharSequence, e.g. a StringBuilder or CharBuffer, so the search
+     * loops see a TextView instead of another class
+     * A TextView is returned as it is. A CharBuffer is viewed from its current
+     * position to its limit; later position changes do not affect the view.
+     */
+    public static TextView of(CharSequence text) {
+        if (text instanceof TextView) {
+            return (TextView) text;
+        }
+        if (text instanceof CharBuffer) {
+            CharBuffer charBuffer = (CharBuffer) text;
+            if (charBuffer.hasArray()) {
+                return new TextView(null, charBuffer.array(), null, null,
+                        charBuffer.arrayOffset() + charBuffer.position(), charBuffer.remaining());
+            }
+            text = charBuffer.duplicate();
+        }
+        return new TextView(null, null, null, text, 0, text.length());
+    }
+
+    /**
+     * Bytes as ISO-8859-1 chars (one byte per char, 0..255)
+     */
+    public static TextView latin1(byte[] bytes) {
+        return latin1(bytes, 0, bytes.length);
+    }
+
+    public static TextView latin1(byte[] bytes, int offset, int length) {
+        checkBounds(bytes.length, offset, length);
+        return new TextView(bytes, null, null, null, offset, length);
+    }
+
+    /**
+     * Remaining bytes of buffer (position to limit) as ISO-8859-1 chars
+     * Heap buffers are read through their array, direct and memory-mapped
+     * buffers with absolute gets; the buffer's position is not changed
+     */
+    public static TextView latin1(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new TextView(buffer.array(), null, null, null, buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+        return new TextView(null, null, buffer, null, buffer.position(), buffer.remaining());
+    }
+
+    private static void checkBounds(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + size);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if index is not within [0, length()), also for
+     *         views of part of an array (subSequence) where the array itself is longer
+     */
+    @Override
+    public char charAt(int index) {
+        if ((index | (length - 1 - index)) < 0) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        if (bytes != null) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+        if (chars != null) {
+            return chars[offset + index];
+        }
+        if (buffer != null) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+        return sequence.charAt(offset + index);
+    }
+
+    @Override
+    public TextView subSequence(int start, int end) {
+        checkBounds(length, start, end - start);
+        return new TextView(bytes, chars, buffer, sequence, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (bytes != null) {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        if (chars != null) {
+            return new String(chars, offset, length);
+        }
+        if (sequence != null) {
+            return sequence.subSequence(offset, offset + length).toString();
+        }
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = buffer.get(offset + i);
+        }
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,191 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Searches UTF-8 encoded text directly, without decoding it to a String
+ *
+ * The pattern is encoded to UTF-8 once and the algorithm runs over the raw
+ * bytes (each byte seen as one Latin-1 char through TextView). This finds
+ * exactly the real occurrences: UTF-8 is self-synchronizing, a lead byte can
+ * never match a continuation byte, so an encoded pattern can only match at a
+ * char boundary.
+ *
+ * Results are byte offsets. The char indices that Solve reports (UTF-16
+ * indices into the decoded String) are computed only on request, from a
+ * sparse index holding the char count at every CHECKPOINT_INTERVAL bytes;
+ * the index is built lazily, only as far as the largest offset asked for.
+ *
+ * The text is assumed to be valid UTF-8: for malformed input, char indices
+ * count lead bytes and may differ from what new String(bytes, UTF_8) gives.
+ * Not thread-safe, the checkpoint index grows on use.
+ */
+public final class Utf8Search {
+
+    private static final int CHECKPOINT_INTERVAL = 4096;
+
+    private final byte[] bytes;      // the text, or null when it is in buffer
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private final TextView view;
+
+    // checkpoints[k] = number of UTF-16 chars before byte k * CHECKPOINT_INTERVAL
+    private int[] checkpoints = new int[] {0};
+    private int checkpointCount = 1;
+
+    public Utf8Search(byte[] utf8) {
+        this.bytes = utf8;
+        this.buffer = null;
+        this.offset = 0;
+        this.length = utf8.length;
+        this.view = TextView.latin1(utf8);
+    }
+
+    /**
+     * Remaining bytes of buffer (e.g. a MappedCorpus mapping), the buffer's position is not changed
+     */
+    public Utf8Search(ByteBuffer utf8) {
+        this.bytes = utf8.hasArray() ? utf8.array() : null;
+        this.buffer = utf8.hasArray() ? null : utf8;
+        this.offset = utf8.hasArray() ? utf8.arrayOffset() + utf8.position() : utf8.position();
+        this.length = utf8.remaining();
+        this.view = TextView.latin1(utf8);
+    }
+
+    /**
+     * Length of the text in bytes
+     */
+    public int byteLength() {
+        return length;
+    }
+
+    /**
+     * Report the byte offset of every match in ascending order
+     * An empty pattern matches at every char boundary
+     */
+    public void search(Solution algorithm, String pattern, MatchSink sink) {
+        if (pattern.isEmpty()) {
+            for (int i = 0; i <= length; i++) {
+                if ((i == length || !isContinuation(byteAt(i))) && !sink.accept(i)) {
+                    return;
+                }
+            }
+            return;
+        }
+        algorithm.search(view, encode(pattern), sink);
+    }
+
+    /**
+     * Byte offsets of every match
+     */
+    public MatchSet findByteOffsets(Solution algorithm, String pattern) {
+        MatchSet offsets = new MatchSet();
+        search(algorithm, pattern, offsets);
+        return offsets;
+    }
+
+    /**
+     * Char indices of every match, the result Solve would give for the decoded text
+     */
+    public MatchSet findMatches(Solution algorithm, String pattern) {
+        if (pattern.isEmpty()) {
+            // Solve also matches between the two chars of a surrogate pair
+            MatchSet all = new MatchSet();
+            int chars = toCharIndex(length);
+            for (int i = 0; i <= chars; i++) {
+                all.add(i);
+            }
+            return all;
+        }
+        return toCharIndices(findByteOffsets(algorithm, pattern));
+    }
+
+    /**
+     * Comma-separated char indices, the same String Solve returns for the decoded text
+     */
+    public String solve(Solution algorithm, String pattern) {
+        return findMatches(algorithm, pattern).toString();
+    }
+
+    /**
+     * UTF-16 index in the decoded text of the char starting at byteOffset
+     */
+    public int toCharIndex(int byteOffset) {
+        if (byteOffset < 0 || byteOffset > length) {
+            throw new IndexOutOfBoundsException("Byte offset " + byteOffset + ", length " + length);
+        }
+        int checkpoint = byteOffset / CHECKPOINT_INTERVAL;
+        extendCheckpoints(checkpoint);
+        int start = checkpoint * CHECKPOINT_INTERVAL;
+        return checkpoints[checkpoint] + countChars(start, byteOffset);
+    }
+
+    /**
+     * Convert ascending byte offsets to char indices in one forward pass
+     */
+    public MatchSet toCharIndices(MatchSet byteOffsets) {
+        MatchSet indices = new MatchSet(byteOffsets.size());
+        int previousOffset = -1;
+        int previousIndex = 0;
+        for (int i = 0; i < byteOffsets.size(); i++) {
+            int byteOffset = byteOffsets.get(i);
+            int index;
+            // Close to the previous match: continue counting from there
+            if (previousOffset >= 0 && byteOffset >= previousOffset
+                    && byteOffset - previousOffset < CHECKPOINT_INTERVAL) {
+                index = previousIndex + countChars(previousOffset, byteOffset);
+            } else {
+                index = toCharIndex(byteOffset);
+            }
+            indices.add(index);
+            previousOffset = byteOffset;
+            previousIndex = index;
+        }
+        return indices;
+    }
+
+    /**
+     * Pattern as UTF-8 bytes, one Latin-1 char per byte
+     */
+    static String encode(String pattern) {
+        return new String(pattern.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+
+    private void extendCheckpoints(int checkpoint) {
+        if (checkpoint < checkpointCount) {
+            return;
+        }
+        if (checkpoint >= checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, Math.max(checkpoint + 1, checkpoints.length * 2));
+        }
+        for (int k = checkpointCount; k <= checkpoint; k++) {
+            int start = (k - 1) * CHECKPOINT_INTERVAL;
+            checkpoints[k] = checkpoints[k - 1] + countChars(start, start + CHECKPOINT_INTERVAL);
+        }
+        checkpointCount = checkpoint + 1;
+    }
+
+    /**
+     * UTF-16 chars of the code points whose lead byte is in [from, to)
+     */
+    private int countChars(int from, int to) {
+        int chars = 0;
+        for (int i = from; i < to; i++) {
+            int b = byteAt(i);
+            if (!isContinuation(b)) {
+                // 4-byte sequences are supplementary code points, a surrogate pair in UTF-16
+                chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    private int byteAt(int index) {
+        return bytes != null ? bytes[offset + index] & 0xFF : buffer.get(offset + index) & 0xFF;
+    }
+
+    private static boolean isContinuation(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wu-Manber: GoCrazy's Horspool skipping generalized to a set of patterns
+ *
+ * Only the first lmin chars of every pattern (lmin = shortest pattern length)
+ * take part in the shifts. The window is lmin chars wide and is judged by its
+ * last block of B chars (2, or 3 for large dictionaries with long enough
+ * patterns) instead of its last char:
+ *   SHIFT   per block hash, how far the window may move: lmin - B + 1 for a
+ *           block occurring in no pattern prefix, less the closer to the end
+ *           of a prefix it occurs. A char[] of 2^TABLE_BITS entries.
+ *   HASH    the patterns whose prefix ends with the block (shift 0), as
+ *           bucket ranges over one int[] of pattern indices
+ *   PREFIX  hash of the first B chars of every pattern, compared with the
+ *           start of the window before any char comparison
+ *
+ * With many patterns more blocks get small shifts, so the skips shrink as
+ * the dictionary grows, sooner on small alphabets (DNA) than on text; the
+ * tables themselves stay the same size. Matches are reported at ascending
+ * positions, patterns at the same position by index. Immutable after
+ * construction and safe to share between threads.
+ */
+public final class WuManber implements MultiPatternMatcher {
+
+    static final int TABLE_BITS = 16;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    /** Dictionaries with more prefix blocks than this use 3-char blocks (when lmin allows) */
+    static final int LARGE_DICTIONARY_BLOCKS = 1 << 12;
+
+    private final List<String> patterns;
+    private final int windowLength; // lmin
+    private final int block;        // B
+    private final char[] shift;     // SHIFT
+    private final int[] bucketStart; // HASH: patterns of hash h are bucketPatterns[bucketStart[h], bucketStart[h + 1])
+    private final int[] bucketPatterns;
+    private final int[] prefix;     // PREFIX, per pattern index
+
+    /**
+     * @throws IllegalArgumentException if patterns is empty or contains an empty pattern
+     */
+    public WuManber(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns");
+        }
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+        int lmin = Integer.MAX_VALUE;
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).isEmpty()) {
+                throw new IllegalArgumentException("Pattern " + i + " is empty");
+            }
+            lmin = Math.min(lmin, patterns.get(i).length());
+        }
+        this.windowLength = lmin;
+        long blocks = (long) patterns.size() * lmin;
+        this.block = lmin == 1 ? 1 : lmin >= 6 && blocks > LARGE_DICTIONARY_BLOCKS ? 3 : 2;
+
+        int defaultShift = Math.min(Character.MAX_VALUE, lmin - block + 1);
+        this.shift = new char[1 << TABLE_BITS];
+        Arrays.fill(shift, (char) defaultShift);
+        int[] bucketSize = new int[(1 << TABLE_BITS) + 1];
+        this.prefix = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            // Block ending at q inside the lmin-prefix allows a shift of lmin - 1 - q
+            for (int q = block - 1; q < lmin; q++) {
+                int h = blockHash(pattern, q);
+                int s = lmin - 1 - q;
+                if (s < shift[h]) {
+                    shift[h] = (char) s;
+                }
+            }
+            bucketSize[blockHash(pattern, lmin - 1)]++;
+            prefix[p] = blockHash(pattern, block - 1);
+        }
+
+        // Counting sort of the pattern indices into the HASH buckets
+        this.bucketStart = new int[(1 << TABLE_BITS) + 1];
+        for (int h = 0; h < 1 << TABLE_BITS; h++) {
+            bucketStart[h + 1] = bucketStart[h] + bucketSize[h];
+        }
+        this.bucketPatterns = new int[patterns.size()];
+        int[] fill = new int[1 << TABLE_BITS];
+        for (int p = 0; p < patterns.size(); p++) {
+            int h = blockHash(patterns.get(p), lmin - 1);
+            bucketPatterns[bucketStart[h] + fill[h]++] = p;
+        }
+    }
+
+    /**
+     * Hash of the block of B chars ending at end (5 bits per char for B = 3, 8 for B = 2)
+     */
+    private int blockHash(CharSequence s, int end) {
+        switch (block) {
+            case 1:
+                return s.charAt(end) & TABLE_MASK;
+            case 2:
+                return ((s.charAt(end - 1) << 8) ^ s.charAt(end)) & TABLE_MASK;
+            default:
+                return ((s.charAt(end - 2) << 10) ^ (s.charAt(end - 1) << 5) ^ s.charAt(end)) & TABLE_MASK;
+        }
+    }
+
+    @Override
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    @Override
+    public void search(CharSequence text, int from, int to, MultiMatchSink sink) {
+        Solution.checkRange(text, from, to);
+        int lmin = windowLength;
+        if (lmin > to - from) {
+            return;
+        }
+
+        // i is the last char of the window text[i - lmin + 1, i]
+        int i = from + lmin - 1;
+        int span = SearchBudget.blockSpan(lmin);
+        while (i < to) {
+            SearchBudget.checkpoint();
+            int blockEnd = i + Math.min(to - 1 - i, span);
+            while (i <= blockEnd) {
+                int h = blockHash(text, i);
+                int s = shift[h];
+                if (s > 0) {
+                    i += s;
+                    continue;
+                }
+                int start = i - lmin + 1;
+                int textPrefix = blockHash(text, start + block - 1);
+                for (int b = bucketStart[h]; b < bucketStart[h + 1]; b++) {
+                    int p = bucketPatterns[b];
+                    if (prefix[p] != textPrefix) {
+                        continue;
+                    }
+                    String pattern = patterns.get(p);
+                    int m = pattern.length();
+                    if (start + m > to) {
+                        continue;
+                    }
+                    int j = 0;
+                    while (j < m && text.charAt(start + j) == pattern.charAt(j)) {
+                        j++;
+                    }
+                    if (j == m && !sink.accept(p, start)) {
+                        return;
+                    }
+                }
+                i++;
+            }
+        }
+    }
+}